@@ -10,8 +10,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.btg.challenge.shared.pagination.CursorPage;
+import com.btg.challenge.shared.pagination.Cursors;
+
 @RestController
 @RequestMapping("/friends")
 public class FriendController {
@@ -31,6 +35,12 @@ public class FriendController {
         return ResponseEntity.ok(friendService.findAll(pageable));
     }
 
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<FriendDto>> getAllFriendsAfter(@RequestParam String cursor,
+            @RequestParam(defaultValue = "" + Cursors.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(friendService.findAfter(cursor, size));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<FriendDto> getFriendById(@PathVariable Long id) {
         return ResponseEntity.ok(friendService.findById(id));
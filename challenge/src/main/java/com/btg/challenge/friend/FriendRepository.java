@@ -1,8 +1,12 @@
 package com.btg.challenge.friend;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface FriendRepository extends JpaRepository<Friend, Long> {
+    List<Friend> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
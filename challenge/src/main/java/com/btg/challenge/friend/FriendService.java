@@ -1,6 +1,8 @@
 package com.btg.challenge.friend;
 
 import com.btg.challenge.shared.exception.ResourceNotFoundException;
+import com.btg.challenge.shared.pagination.CursorPage;
+import com.btg.challenge.shared.pagination.Cursors;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -25,6 +27,11 @@ public class FriendService {
                 .map(friendMapper::toDto);
     }
 
+    public CursorPage<FriendDto> findAfter(String cursor, int size) {
+        return Cursors.page(friendRepository.findByIdGreaterThanOrderByIdAsc(Cursors.decode(cursor), Cursors.limit(size)), size, Friend::getId)
+                .map(friendMapper::toDto);
+    }
+
     public FriendDto findById(Long id) {
         return friendRepository.findById(id)
                 .map(friendMapper::toDto)
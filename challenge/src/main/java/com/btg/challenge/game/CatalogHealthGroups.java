@@ -0,0 +1,64 @@
+package com.btg.challenge.game;
+
+import org.springframework.boot.actuate.endpoint.SecurityContext;
+import org.springframework.boot.actuate.health.AdditionalHealthEndpointPath;
+import org.springframework.boot.actuate.health.HealthEndpointGroup;
+import org.springframework.boot.actuate.health.HealthEndpointGroups;
+import org.springframework.boot.actuate.health.HealthEndpointGroupsPostProcessor;
+import org.springframework.boot.actuate.health.HttpCodeStatusMapper;
+import org.springframework.boot.actuate.health.StatusAggregator;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Leaves the {@link CatalogHealthIndicator} out of the root {@code /actuator/health},
+ * which otherwise aggregates every indicator. A pending or failed catalog import then
+ * only shows in the catalog group and never turns the root, liveness or readiness
+ * status down.
+ */
+@Component
+public class CatalogHealthGroups implements HealthEndpointGroupsPostProcessor {
+
+    @Override
+    public HealthEndpointGroups postProcessHealthEndpointGroups(HealthEndpointGroups groups) {
+        Map<String, HealthEndpointGroup> named = groups.getNames().stream()
+                .collect(Collectors.toMap(Function.identity(), groups::get));
+        return HealthEndpointGroups.of(new WithoutCatalog(groups.getPrimary()), named);
+    }
+
+    private record WithoutCatalog(HealthEndpointGroup primary) implements HealthEndpointGroup {
+
+        @Override
+        public boolean isMember(String name) {
+            return !CatalogHealthIndicator.NAME.equals(name) && primary.isMember(name);
+        }
+
+        @Override
+        public boolean showComponents(SecurityContext securityContext) {
+            return primary.showComponents(securityContext);
+        }
+
+        @Override
+        public boolean showDetails(SecurityContext securityContext) {
+            return primary.showDetails(securityContext);
+        }
+
+        @Override
+        public StatusAggregator getStatusAggregator() {
+            return primary.getStatusAggregator();
+        }
+
+        @Override
+        public HttpCodeStatusMapper getHttpCodeStatusMapper() {
+            return primary.getHttpCodeStatusMapper();
+        }
+
+        @Override
+        public AdditionalHealthEndpointPath getAdditionalPath() {
+            return primary.getAdditionalPath();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.btg.challenge.game;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health of the game catalog import, exposed only as the {@code catalog} health group:
+ * out of service until the import finished, then up, or down when it failed. The rest of
+ * the application is healthy and serving meanwhile, so it stays out of readiness and
+ * {@link CatalogHealthGroups} keeps it out of the root health.
+ */
+@Component(CatalogHealthIndicator.NAME + "HealthIndicator")
+public class CatalogHealthIndicator implements HealthIndicator {
+    static final String NAME = "catalog";
+
+    private final GameDataPopulationService populationService;
+
+    public CatalogHealthIndicator(GameDataPopulationService populationService) {
+        this.populationService = populationService;
+    }
+
+    @Override
+    public Health health() {
+        GameDataPopulationService.Status status = populationService.getStatus();
+        Health.Builder builder = switch (status == null ? GameDataPopulationService.Status.PENDING : status) {
+            case PENDING, RUNNING -> Health.outOfService();
+            case COMPLETED -> Health.up();
+            case FAILED -> Health.down();
+        };
+        builder.withDetail("import", status);
+        builder.withDetail("importedGames", populationService.getImportedGames());
+        if (populationService.getFinishedAt() != null) {
+            builder.withDetail("finishedAt", populationService.getFinishedAt().toString());
+        }
+        if (populationService.getLastError() != null) {
+            builder.withDetail("error", populationService.getLastError());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,260 @@
+package com.btg.challenge.game;
+
+import com.btg.challenge.shared.util.LongIntHashMap;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a downloaded catalog to the game table. The JSON array is read one game at a
+ * time and applied in batches of {@code batchSize}, so memory use does not depend on the
+ * size of the catalog. Each game carries a hash of its imported fields; a batch looks up
+ * the stored hashes with one query and only writes games that are new or whose hash
+ * changed, so applying the same catalog again writes nothing. Written and deleted games
+ * are applied to the {@link GenreIndex}.
+ */
+@Component
+public class CatalogImporter {
+    private static final Logger log = LoggerFactory.getLogger(CatalogImporter.class);
+
+    /**
+     * What one import wrote. Retained games were removed from the catalog but still have
+     * loans, so they are kept.
+     */
+    public static final class Changes {
+        private int inserted;
+        private int updated;
+        private int deleted;
+        private int retained;
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        public int getRetained() {
+            return retained;
+        }
+
+        public int total() {
+            return inserted + updated + deleted;
+        }
+    }
+
+    private final GameRepository gameRepository;
+    private final GenreService genreService;
+    private final GenreIndex genreIndex;
+    private final ObjectMapper objectMapper;
+
+    @Value("${game-api.import.batch-size:500}")
+    private int batchSize = 500;
+
+    public CatalogImporter(GameRepository gameRepository, GenreService genreService, GenreIndex genreIndex,
+                           ObjectMapper objectMapper) {
+        this.gameRepository = gameRepository;
+        this.genreService = genreService;
+        this.genreIndex = genreIndex;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Upserts every game of {@code payload}. With {@code removeMissing}, imported games no
+     * longer in the catalog are deleted afterwards, except those with loans.
+     */
+    public Changes apply(Path payload, boolean removeMissing) throws IOException {
+        Changes changes = new Changes();
+        LongIntHashMap seen = new LongIntHashMap();
+        List<PlaystationGameDto> batch = new ArrayList<>(batchSize);
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Game catalog is not a JSON array");
+            }
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new IOException("Game catalog ended before the end of the array");
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                batch.add(objectMapper.readValue(parser, PlaystationGameDto.class));
+                if (batch.size() == batchSize) {
+                    applyBatch(batch, changes, seen);
+                    batch.clear();
+                }
+            }
+        }
+        applyBatch(batch, changes, seen);
+
+        // An empty catalog is more likely a broken feed than every game being withdrawn.
+        if (removeMissing && seen.size() > 0) {
+            removeMissing(seen, changes);
+        }
+        return changes;
+    }
+
+    private void applyBatch(List<PlaystationGameDto> gameDtos, Changes changes, LongIntHashMap seen) {
+        Map<Long, Game> incoming = new LinkedHashMap<>();
+        for (PlaystationGameDto dto : gameDtos) {
+            Game game = mapToGame(dto);
+            if (game != null) {
+                incoming.put(game.getExternalId(), game);
+                seen.addTo(game.getExternalId(), 1);
+            }
+        }
+        if (incoming.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> idsByExternalId = new HashMap<>();
+        List<Long> changedIds = new ArrayList<>();
+        for (Object[] row : gameRepository.findHashesByExternalIdIn(incoming.keySet())) {
+            Long externalId = (Long) row[0];
+            idsByExternalId.put(externalId, (Long) row[1]);
+            if (!incoming.get(externalId).getContentHash().equals(row[2])) {
+                changedIds.add((Long) row[1]);
+            }
+        }
+
+        List<Game> toSave = new ArrayList<>();
+        for (Game current : gameRepository.findAllById(changedIds)) {
+            copyImportedFields(incoming.get(current.getExternalId()), current);
+            toSave.add(current);
+        }
+        changes.updated += toSave.size();
+
+        // Games without an external id may have been created by users, so a catalog game
+        // is never matched to them by name; it is inserted next to them.
+        for (Game game : incoming.values()) {
+            if (!idsByExternalId.containsKey(game.getExternalId())) {
+                toSave.add(game);
+                changes.inserted++;
+            }
+        }
+        if (!toSave.isEmpty()) {
+            save(toSave);
+        }
+    }
+
+    /**
+     * Links the games to their genres, resolved for the whole batch at once, then saves
+     * them and updates the genre index.
+     */
+    private void save(List<Game> games) {
+        Map<String, Genre> genres = genreService.resolve(games.stream()
+                .flatMap(game -> GenreService.parse(game.getGenre()).stream())
+                .collect(Collectors.toSet()));
+        for (Game game : games) {
+            game.setGenres(GenreService.parse(game.getGenre()).stream()
+                    .map(genres::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()));
+        }
+        for (Game saved : gameRepository.saveAll(games)) {
+            genreIndex.put(saved.getId(), GenreService.parse(saved.getGenre()));
+        }
+    }
+
+    private void removeMissing(LongIntHashMap seen, Changes changes) {
+        long afterId = 0;
+        List<Long> missing = new ArrayList<>(batchSize);
+        while (true) {
+            List<Object[]> rows = gameRepository.findImportedAfter(afterId, Limit.of(batchSize));
+            for (Object[] row : rows) {
+                if (seen.get((Long) row[1]) == 0) {
+                    missing.add((Long) row[0]);
+                }
+            }
+            if (missing.size() >= batchSize || (rows.isEmpty() && !missing.isEmpty())) {
+                deleteUnlessLent(missing, changes);
+                missing.clear();
+            }
+            if (rows.isEmpty()) {
+                return;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    private void deleteUnlessLent(List<Long> ids, Changes changes) {
+        Set<Long> lent = new HashSet<>(gameRepository.findIdsWithLoans(ids));
+        List<Long> deletable = ids.stream().filter(id -> !lent.contains(id)).toList();
+        changes.retained += lent.size();
+        if (deletable.isEmpty()) {
+            return;
+        }
+        try {
+            gameRepository.deleteAllByIdInBatch(deletable);
+            genreIndex.removeAll(deletable);
+            changes.deleted += deletable.size();
+        } catch (DataIntegrityViolationException e) {
+            // Lent out since the check above; the next sync tries again.
+            log.warn("Kept {} games removed from the catalog that were lent meanwhile", deletable.size());
+            changes.retained += deletable.size();
+        }
+    }
+
+    private static void copyImportedFields(Game source, Game target) {
+        target.setName(source.getName());
+        target.setGenre(source.getGenre());
+        target.setContentHash(source.getContentHash());
+    }
+
+    private static Game mapToGame(PlaystationGameDto dto) {
+        if (dto.getName() == null || dto.getName().trim().isEmpty() ||
+            dto.getGenre() == null || dto.getGenre().isEmpty()) {
+            return null;
+        }
+
+        Game game = new Game();
+        game.setName(dto.getName());
+        game.setGenre(String.join(", ", dto.getGenre()));
+        game.setExternalId((long) dto.getId());
+        game.setContentHash(contentHash(game));
+        return game;
+    }
+
+    /**
+     * First 64 bits of the SHA-256 of the imported fields.
+     */
+    static long contentHash(Game game) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(game.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(game.getGenre().getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.btg.challenge.game;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Last catalog payload downloaded from the game API, kept on local disk with the
+ * validators (ETag, Last-Modified) it was served with. The payload and a small
+ * properties file next to it are each replaced with an atomic rename, and the properties
+ * file is written last, so a crash never pairs validators with the wrong payload.
+ */
+@Component
+public class CatalogSnapshotStore {
+
+    public record Snapshot(Path payload, String etag, String lastModified) {
+    }
+
+    private final Path payloadFile;
+    private final Path metadataFile;
+
+    public CatalogSnapshotStore(@Value("${game-api.snapshot-file:data/catalog-snapshot.json}") String snapshotFile) {
+        this.payloadFile = Path.of(snapshotFile).toAbsolutePath();
+        this.metadataFile = payloadFile.resolveSibling(payloadFile.getFileName() + ".properties");
+    }
+
+    public Optional<Snapshot> load() throws IOException {
+        if (!Files.isRegularFile(payloadFile)) {
+            return Optional.empty();
+        }
+        Properties metadata = new Properties();
+        if (Files.isRegularFile(metadataFile)) {
+            try (InputStream in = Files.newInputStream(metadataFile)) {
+                metadata.load(in);
+            }
+        }
+        return Optional.of(new Snapshot(payloadFile, metadata.getProperty("etag"), metadata.getProperty("lastModified")));
+    }
+
+    /**
+     * A new empty file in the snapshot directory, to download into before {@link #replace}.
+     */
+    public Path newDownloadFile() throws IOException {
+        Files.createDirectories(payloadFile.getParent());
+        return Files.createTempFile(payloadFile.getParent(), payloadFile.getFileName().toString(), ".download");
+    }
+
+    public Snapshot replace(Path download, String etag, String lastModified) throws IOException {
+        Properties metadata = new Properties();
+        if (etag != null) {
+            metadata.setProperty("etag", etag);
+        }
+        if (lastModified != null) {
+            metadata.setProperty("lastModified", lastModified);
+        }
+        Path metadataDownload = Files.createTempFile(payloadFile.getParent(), metadataFile.getFileName().toString(), ".download");
+        try (OutputStream out = Files.newOutputStream(metadataDownload)) {
+            metadata.store(out, "Validators of " + payloadFile.getFileName());
+        }
+        // Drop the old validators first: a payload without them is only refetched in full.
+        Files.deleteIfExists(metadataFile);
+        Files.move(download, payloadFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(metadataDownload, metadataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Snapshot(payloadFile, etag, lastModified);
+    }
+}
@@ -10,8 +10,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.btg.challenge.shared.pagination.CursorPage;
+import com.btg.challenge.shared.pagination.Cursors;
+
+import java.util.List;
+
 @RestController
 @RequestMapping("/games")
 public class GameController {
@@ -31,6 +37,23 @@ public class GameController {
         return ResponseEntity.ok(gameService.findAll(pageable));
     }
 
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<GameDto>> getAllGamesAfter(@RequestParam String cursor,
+            @RequestParam(defaultValue = "" + Cursors.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(gameService.findAfter(cursor, size));
+    }
+
+    @GetMapping(params = "genre")
+    public ResponseEntity<Page<GameDto>> getGamesByGenre(@RequestParam("genre") List<String> genres, Pageable pageable) {
+        return ResponseEntity.ok(gameService.findByGenres(genres, pageable));
+    }
+
+    @GetMapping(params = {"genre", "cursor"})
+    public ResponseEntity<CursorPage<GameDto>> getGamesByGenreAfter(@RequestParam("genre") List<String> genres,
+            @RequestParam String cursor, @RequestParam(defaultValue = "" + Cursors.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(gameService.findByGenresAfter(genres, cursor, size));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<GameDto> getGameById(@PathVariable Long id) {
         return ResponseEntity.ok(gameService.findById(id));
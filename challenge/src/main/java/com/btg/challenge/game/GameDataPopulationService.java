@@ -1,69 +1,270 @@
 package com.btg.challenge.game;
 
-import jakarta.annotation.PostConstruct;
+import com.btg.challenge.game.CatalogImporter.Changes;
+import com.btg.challenge.game.CatalogSnapshotStore.Snapshot;
+import com.btg.challenge.shared.lock.JobLockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Imports the game catalog from the external API. The import runs on its own thread once
+ * the application is ready, so startup and request handling never wait on the API; its
+ * progress is reported by {@link CatalogHealthIndicator}.
+ * <p>
+ * The last downloaded catalog is kept in a {@link CatalogSnapshotStore}. At startup it is
+ * applied first, which makes the catalog available without the API; the API is then
+ * asked with a conditional GET and a changed catalog replaces the snapshot.
+ * <p>
+ * After the first import the catalog is synced again every {@code game-api.sync.interval-millis}
+ * plus a random jitter, so nodes started together do not hit the API together. Only the
+ * node holding the {@value #LOCK_NAME} lock syncs; the others skip the run. A full download
+ * also deletes games that left the catalog, except those with loans.
+ */
 @Service
 public class GameDataPopulationService {
     private static final Logger log = LoggerFactory.getLogger(GameDataPopulationService.class);
 
+    static final String LOCK_NAME = "catalog-sync";
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
     @Value("${game-api.url}")
     private String gameApiUrl;
 
+    @Value("${game-api.sync.enabled:true}")
+    private boolean syncEnabled = true;
+
+    @Value("${game-api.sync.interval-millis:3600000}")
+    private long syncIntervalMillis = 3_600_000;
+
+    @Value("${game-api.sync.jitter-millis:300000}")
+    private long syncJitterMillis = 300_000;
+
+    @Value("${game-api.sync.retry-millis:30000}")
+    private long retryMillis = 30_000;
+
+    @Value("${game-api.sync.lock-lease-millis:900000}")
+    private long lockLeaseMillis = 900_000;
+
     private final GameRepository gameRepository;
 
     private final RestTemplate restTemplate;
 
-    public GameDataPopulationService(GameRepository gameRepository, RestTemplate restTemplate) {
+    private final CatalogSnapshotStore snapshotStore;
+
+    private final CatalogImporter catalogImporter;
+
+    private final JobLockService jobLockService;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Status status = Status.PENDING;
+    private volatile int importedGames;
+    private volatile String lastError;
+    private volatile Instant finishedAt;
+    private boolean snapshotApplied;
+
+    public GameDataPopulationService(GameRepository gameRepository, RestTemplate restTemplate,
+                                     CatalogSnapshotStore snapshotStore, CatalogImporter catalogImporter,
+                                     JobLockService jobLockService, MeterRegistry meterRegistry) {
         this.gameRepository = gameRepository;
         this.restTemplate = restTemplate;
+        this.snapshotStore = snapshotStore;
+        this.catalogImporter = catalogImporter;
+        this.jobLockService = jobLockService;
+        this.meterRegistry = meterRegistry;
     }
 
-    @PostConstruct
-    public void populateGames() {
-        if (gameRepository.count() > 0) {
-            log.info("Games already exist in the database, skipping population.");
-            return;
+    @EventListener(ApplicationReadyEvent.class)
+    public void populateGamesInBackground() {
+        executor.execute(this::syncAndReschedule);
+    }
+
+    private void syncAndReschedule() {
+        try {
+            populateGames();
+        } finally {
+            if (syncEnabled && !executor.isShutdown()) {
+                executor.schedule(this::syncAndReschedule, nextDelayMillis(), TimeUnit.MILLISECONDS);
+            }
         }
+    }
+
+    /**
+     * Until a catalog has been applied the sync is retried after {@code retryMillis};
+     * afterwards it waits the full interval. Both get the jitter.
+     */
+    long nextDelayMillis() {
+        long delay = status == Status.COMPLETED ? syncIntervalMillis : retryMillis;
+        return delay + (syncJitterMillis > 0 ? ThreadLocalRandom.current().nextLong(syncJitterMillis + 1) : 0);
+    }
 
+    /**
+     * Applies the snapshot if this is the first run, then refreshes from the API. Once a
+     * catalog has been applied the status stays {@link Status#COMPLETED}; later failures
+     * are only reported as the last error.
+     */
+    public synchronized void populateGames() {
+        if (status != Status.COMPLETED) {
+            status = Status.RUNNING;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
         try {
-            log.info("Fetching games from external API: {}", gameApiUrl);
-            PlaystationGameDto[] gameDtos = restTemplate.getForObject(gameApiUrl, PlaystationGameDto[].class);
-
-            if (gameDtos != null && gameDtos.length > 0) {
-                List<Game> games = Arrays.stream(gameDtos)
-                        .limit(20)
-                        .map(this::mapToGame)
-                        .filter(Objects::nonNull)
-                        .toList();
-
-                if (!games.isEmpty()) {
-                    gameRepository.saveAll(games);
-                    log.info("Successfully populated {} games from the external API.", games.size());
+            if (!jobLockService.tryAcquire(LOCK_NAME, Duration.ofMillis(lockLeaseMillis))) {
+                outcome = "skipped";
+                log.info("Catalog sync is running on another node, skipping.");
+                if (status != Status.COMPLETED) {
+                    status = gameRepository.existsByExternalIdIsNotNull() ? Status.COMPLETED : Status.PENDING;
+                }
+                return;
+            }
+            try {
+                if (!snapshotApplied) {
+                    snapshotApplied = true;
+                    applySnapshot();
                 }
+                Changes changes = refresh();
+                outcome = changes == null ? "not_modified" : "success";
+                importedGames = changes == null ? 0 : changes.total();
+                lastError = null;
+                status = Status.COMPLETED;
+            } finally {
+                jobLockService.release(LOCK_NAME);
             }
         } catch (Exception e) {
             log.error("Error fetching games from API: {}", e.getMessage());
+            lastError = e.getMessage();
+            if (status != Status.COMPLETED) {
+                status = Status.FAILED;
+            }
+        } finally {
+            finishedAt = Instant.now();
+            sample.stop(Timer.builder("catalog.sync.duration").tag("outcome", outcome).register(meterRegistry));
         }
     }
 
-    private Game mapToGame(PlaystationGameDto dto) {
-        if (dto.getName() == null || dto.getName().trim().isEmpty() ||
-            dto.getGenre() == null || dto.getGenre().isEmpty()) {
-            return null;
+    private void applySnapshot() {
+        try {
+            Snapshot snapshot = snapshotStore.load().orElse(null);
+            if (snapshot != null) {
+                // A snapshot may be older than the database, so it never deletes games.
+                Changes changes = catalogImporter.apply(snapshot.payload(), false);
+                record(changes);
+                importedGames = changes.total();
+                status = Status.COMPLETED;
+                log.info("Applied catalog snapshot {}, {} games changed.", snapshot.payload(), importedGames);
+            }
+        } catch (Exception e) {
+            log.warn("Could not apply catalog snapshot, falling back to the API: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns null when the catalog was not modified since the snapshot.
+     */
+    private Changes refresh() throws IOException {
+        Snapshot current = snapshotStore.load().orElse(null);
+        Path download = snapshotStore.newDownloadFile();
+        try {
+            log.info("Fetching games from external API: {}", gameApiUrl);
+            HttpHeaders validators = restTemplate.execute(gameApiUrl, HttpMethod.GET, request -> {
+                if (current != null && current.etag() != null) {
+                    request.getHeaders().setIfNoneMatch(current.etag());
+                }
+                if (current != null && current.lastModified() != null) {
+                    request.getHeaders().set(HttpHeaders.IF_MODIFIED_SINCE, current.lastModified());
+                }
+            }, response -> {
+                if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                    return null;
+                }
+                try (InputStream body = response.getBody()) {
+                    Files.copy(body, download, StandardCopyOption.REPLACE_EXISTING);
+                }
+                return response.getHeaders();
+            });
+            if (validators == null) {
+                log.info("Game catalog not modified since the last download.");
+                return null;
+            }
+
+            Changes changes = catalogImporter.apply(download, true);
+            record(changes);
+            // Only replaced once applied, so a failed import is retried with a full download.
+            snapshotStore.replace(download, validators.getETag(), validators.getFirst(HttpHeaders.LAST_MODIFIED));
+            log.info("Synced games from the external API: {} inserted, {} updated, {} deleted, {} kept for their loans.",
+                    changes.getInserted(), changes.getUpdated(), changes.getDeleted(), changes.getRetained());
+            return changes;
+        } finally {
+            Files.deleteIfExists(download);
         }
+    }
+
+    private void record(Changes changes) {
+        changeCounter("inserted").increment(changes.getInserted());
+        changeCounter("updated").increment(changes.getUpdated());
+        changeCounter("deleted").increment(changes.getDeleted());
+        changeCounter("retained").increment(changes.getRetained());
+    }
+
+    private Counter changeCounter(String type) {
+        return Counter.builder("catalog.sync.changes").tag("type", type).register(meterRegistry);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getImportedGames() {
+        return importedGames;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
 
-        Game game = new Game();
-        game.setName(dto.getName());
-        game.setGenre(String.join(", ", dto.getGenre()));
-        return game;
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
     }
 }
@@ -9,5 +9,8 @@ public interface GameMapper {
     GameDto toDto(Game game);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "externalId", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
+    @Mapping(target = "genres", ignore = true)
     Game toEntity(GameDto gameDto);
 }
@@ -1,8 +1,46 @@
 package com.btg.challenge.game;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface GameRepository extends JpaRepository<Game, Long> {
+    List<Game> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * External id, id and content hash of the imported games among {@code externalIds}.
+     */
+    @Query("select g.externalId, g.id, g.contentHash from Game g where g.externalId in :externalIds")
+    List<Object[]> findHashesByExternalIdIn(@Param("externalIds") Collection<Long> externalIds);
+
+    /**
+     * Id and external id of imported games, in id order.
+     */
+    @Query("select g.id, g.externalId from Game g where g.externalId is not null and g.id > :afterId order by g.id")
+    List<Object[]> findImportedAfter(@Param("afterId") Long afterId, Limit limit);
+
+    boolean existsByExternalIdIsNotNull();
+
+    @Query("select g.id from Game g where g.id in :ids and (exists (select 1 from Loan l where l.game = g) "
+            + "or exists (select 1 from ArchivedLoan a where a.gameId = g.id))")
+    List<Long> findIdsWithLoans(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Game id and genre name of every game/genre link. The stream must be consumed inside
+     * a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select g.id, genre.name from Game g join g.genres genre")
+    Stream<Object[]> streamGenres();
 }
@@ -1,24 +1,43 @@
 package com.btg.challenge.game;
 
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import com.btg.challenge.shared.exception.BadRequestException;
 import com.btg.challenge.shared.exception.ResourceNotFoundException;
+import com.btg.challenge.shared.pagination.CursorPage;
+import com.btg.challenge.shared.pagination.Cursors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 
 @Service
 public class GameService {
     private final GameRepository gameRepository;
     private final GameMapper gameMapper;
+    private final GenreService genreService;
+    private final GenreIndex genreIndex;
 
-    public GameService(GameRepository gameRepository, GameMapper gameMapper) {
+    public GameService(GameRepository gameRepository, GameMapper gameMapper, GenreService genreService, GenreIndex genreIndex) {
         this.gameRepository = gameRepository;
         this.gameMapper = gameMapper;
+        this.genreService = genreService;
+        this.genreIndex = genreIndex;
     }
 
     public GameDto save(GameDto gameDto) {
         Game game = gameMapper.toEntity(gameDto);
-        return gameMapper.toDto(gameRepository.save(game));
+        game.setGenres(genreService.resolve(game.getGenre()));
+        Game saved = gameRepository.save(game);
+        genreIndex.put(saved.getId(), GenreService.parse(saved.getGenre()));
+        return gameMapper.toDto(saved);
     }
 
     public Page<GameDto> findAll(Pageable pageable) {
@@ -26,6 +45,45 @@ public class GameService {
                 .map(gameMapper::toDto);
     }
 
+    public CursorPage<GameDto> findAfter(String cursor, int size) {
+        return Cursors.page(gameRepository.findByIdGreaterThanOrderByIdAsc(Cursors.decode(cursor), Cursors.limit(size)), size, Game::getId)
+                .map(gameMapper::toDto);
+    }
+
+    /**
+     * Games matching a genre filter, in id order, descending when the page asks for it.
+     * Filters are ANDed, as are the genres of one filter separated by commas; genres
+     * separated by {@code |} are ORed, so {@code ["Action|RPG", "Shooter"]} finds games
+     * that are Action or RPG, and Shooter.
+     */
+    public Page<GameDto> findByGenres(List<String> filters, Pageable pageable) {
+        boolean descending = isDescendingById(pageable.getSort());
+        Roaring64Bitmap ids = genreIndex.match(parseGenreFilters(filters));
+        long total = ids.getLongCardinality();
+        List<Long> pageIds = new ArrayList<>(pageable.getPageSize());
+        if (pageable.getOffset() < total) {
+            PeekableLongIterator iterator = descending
+                    ? ids.getReverseLongIteratorFrom(ids.select(total - 1 - pageable.getOffset()))
+                    : ids.getLongIteratorFrom(ids.select(pageable.getOffset()));
+            while (iterator.hasNext() && pageIds.size() < pageable.getPageSize()) {
+                pageIds.add(iterator.next());
+            }
+        }
+        return new PageImpl<>(findAllByIdInOrder(pageIds, descending), pageable, total);
+    }
+
+    public CursorPage<GameDto> findByGenresAfter(List<String> filters, String cursor, int size) {
+        Roaring64Bitmap ids = genreIndex.match(parseGenreFilters(filters));
+        int limit = Cursors.limit(size).max();
+        List<Long> sliceIds = new ArrayList<>(limit);
+        PeekableLongIterator iterator = ids.getLongIterator();
+        iterator.advanceIfNeeded(Cursors.decode(cursor) + 1);
+        while (iterator.hasNext() && sliceIds.size() < limit) {
+            sliceIds.add(iterator.next());
+        }
+        return Cursors.page(findAllByIdInOrder(sliceIds, false), size, GameDto::getId);
+    }
+
     public GameDto findById(Long id) {
         return gameRepository.findById(id)
                 .map(gameMapper::toDto)
@@ -34,6 +92,7 @@ public class GameService {
 
     public void deleteById(Long id) {
         gameRepository.deleteById(id);
+        genreIndex.remove(id);
     }
 
     public GameDto update(Long id, GameDto gameDto) {
@@ -41,6 +100,49 @@ public class GameService {
                 .orElseThrow(() -> new ResourceNotFoundException("Game not found with id: " + id));
         existingGame.setName(gameDto.getName());
         existingGame.setGenre(gameDto.getGenre());
-        return gameMapper.toDto(gameRepository.save(existingGame));
+        existingGame.setGenres(genreService.resolve(gameDto.getGenre()));
+        Game saved = gameRepository.save(existingGame);
+        genreIndex.put(saved.getId(), GenreService.parse(saved.getGenre()));
+        return gameMapper.toDto(saved);
+    }
+
+    /**
+     * Games may have been deleted since the index was read; those are left out.
+     */
+    private List<GameDto> findAllByIdInOrder(List<Long> ids, boolean descending) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Comparator<Game> byId = Comparator.comparing(Game::getId);
+        return gameRepository.findAllById(ids).stream()
+                .sorted(descending ? byId.reversed() : byId)
+                .map(gameMapper::toDto)
+                .toList();
+    }
+
+    /**
+     * The genre index yields ids in order, so genre results can only be sorted by id.
+     */
+    private static boolean isDescendingById(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!order.getProperty().equals("id")) {
+                throw new BadRequestException("Games filtered by genre can only be sorted by id");
+            }
+        }
+        Sort.Order id = sort.getOrderFor("id");
+        return id != null && id.isDescending();
+    }
+
+    private static List<List<String>> parseGenreFilters(List<String> filters) {
+        List<List<String>> groups = new ArrayList<>();
+        for (String filter : filters) {
+            for (String group : GenreService.parse(filter)) {
+                groups.add(Arrays.stream(group.split("\\|")).map(String::trim).filter(genre -> !genre.isEmpty()).toList());
+            }
+        }
+        if (groups.isEmpty() || groups.stream().anyMatch(List::isEmpty)) {
+            throw new BadRequestException("Genre filter must name at least one genre");
+        }
+        return groups;
     }
 }
@@ -0,0 +1,153 @@
+package com.btg.challenge.game;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory genre index: a compressed bitmap of game ids per genre, so genre filters are
+ * answered with bitmap unions and intersections instead of scanning the game table. It is
+ * loaded when the application is ready and then kept up to date by {@link GameService} and
+ * {@link CatalogImporter} after each write. Genre names are matched case-insensitively.
+ * <p>
+ * State is per node: games changed on other nodes, including catalog syncs run by
+ * another node, are picked up by the rebuild that runs every {@code refresh-millis}.
+ */
+@Service
+public class GenreIndex {
+    private static final Logger log = LoggerFactory.getLogger(GenreIndex.class);
+
+    private final GameRepository gameRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Object rebuildLock = new Object();
+    // Both guarded by this. writesDuringRebuild holds the writes made while a rebuild reads
+    // the database, to replay onto its result; it is null outside of rebuilds.
+    private Map<String, Roaring64Bitmap> gamesByGenre = new HashMap<>();
+    private List<Consumer<Map<String, Roaring64Bitmap>>> writesDuringRebuild;
+
+    public GenreIndex(GameRepository gameRepository, PlatformTransactionManager transactionManager) {
+        this.gameRepository = gameRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Replaces the index with the genres in the database. The new index is built while
+     * lookups and writes go on against the current one; writes made meanwhile may be
+     * missing from what was read, so they are applied again before the swap.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${game.genre-index.refresh-millis:300000}",
+            fixedDelayString = "${game.genre-index.refresh-millis:300000}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                writesDuringRebuild = new ArrayList<>();
+            }
+            try {
+                Map<String, Roaring64Bitmap> rebuilt = new HashMap<>();
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<Object[]> rows = gameRepository.streamGenres()) {
+                        rows.forEach(row -> bitmap(rebuilt, (String) row[1]).addLong((Long) row[0]));
+                    }
+                });
+                rebuilt.values().forEach(Roaring64Bitmap::runOptimize);
+                synchronized (this) {
+                    writesDuringRebuild.forEach(write -> write.accept(rebuilt));
+                    gamesByGenre = rebuilt;
+                    log.info("Indexed {} genres", gamesByGenre.size());
+                }
+            } finally {
+                synchronized (this) {
+                    writesDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the genres of a game, replacing the ones it had.
+     */
+    public synchronized void put(Long gameId, Collection<String> genres) {
+        write(games -> put(games, gameId, genres));
+    }
+
+    public synchronized void remove(Long gameId) {
+        write(games -> remove(games, gameId));
+    }
+
+    public synchronized void removeAll(Collection<Long> gameIds) {
+        write(games -> gameIds.forEach(gameId -> remove(games, gameId)));
+    }
+
+    /**
+     * Ids of the games matching every group, where a game matches a group when it has any
+     * of the group's genres: {@code [[Action, RPG], [Shooter]]} is (Action OR RPG) AND
+     * Shooter. The result is a copy the caller may keep.
+     */
+    public synchronized Roaring64Bitmap match(List<? extends Collection<String>> groups) {
+        Roaring64Bitmap result = null;
+        for (Collection<String> group : groups) {
+            Roaring64Bitmap any = new Roaring64Bitmap();
+            for (String genre : group) {
+                Roaring64Bitmap games = gamesByGenre.get(key(genre));
+                if (games != null) {
+                    any.or(games);
+                }
+            }
+            if (result == null) {
+                result = any;
+            } else {
+                result.and(any);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result == null ? new Roaring64Bitmap() : result;
+    }
+
+    private void write(Consumer<Map<String, Roaring64Bitmap>> write) {
+        write.accept(gamesByGenre);
+        if (writesDuringRebuild != null) {
+            writesDuringRebuild.add(write);
+        }
+    }
+
+    private static void put(Map<String, Roaring64Bitmap> gamesByGenre, Long gameId, Collection<String> genres) {
+        remove(gamesByGenre, gameId);
+        for (String genre : genres) {
+            bitmap(gamesByGenre, genre).addLong(gameId);
+        }
+    }
+
+    private static void remove(Map<String, Roaring64Bitmap> gamesByGenre, Long gameId) {
+        gamesByGenre.values().removeIf(games -> {
+            games.removeLong(gameId);
+            return games.isEmpty();
+        });
+    }
+
+    private static Roaring64Bitmap bitmap(Map<String, Roaring64Bitmap> gamesByGenre, String genre) {
+        return gamesByGenre.computeIfAbsent(key(genre), name -> new Roaring64Bitmap());
+    }
+
+    private static String key(String genre) {
+        return genre.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,12 @@
+package com.btg.challenge.game;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GenreRepository extends JpaRepository<Genre, Long> {
+    List<Genre> findByNameIn(Collection<String> names);
+}
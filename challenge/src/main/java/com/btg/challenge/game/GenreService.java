@@ -0,0 +1,80 @@
+package com.btg.challenge.game;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves genre labels such as {@code "Action, Adventure"} to {@link Genre} rows, creating
+ * the genres that do not exist yet.
+ */
+@Service
+public class GenreService {
+    private final GenreRepository genreRepository;
+
+    public GenreService(GenreRepository genreRepository) {
+        this.genreRepository = genreRepository;
+    }
+
+    /**
+     * The distinct genre names of a comma-separated label, trimmed, in label order.
+     */
+    public static List<String> parse(String label) {
+        if (label == null) {
+            return List.of();
+        }
+        return Arrays.stream(label.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * The genres of {@code label}, creating the missing ones.
+     */
+    public Set<Genre> resolve(String label) {
+        List<String> names = parse(label);
+        Map<String, Genre> genres = resolve(names);
+        return names.stream().map(genres::get).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    /**
+     * The genres named {@code names} by name, creating the missing ones with one batched save.
+     */
+    public Map<String, Genre> resolve(Collection<String> names) {
+        if (names.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Genre> genres = byName(genreRepository.findByNameIn(names));
+        List<Genre> missing = names.stream()
+                .distinct()
+                .filter(name -> !genres.containsKey(name))
+                .map(name -> new Genre(null, name))
+                .toList();
+        if (missing.isEmpty()) {
+            return genres;
+        }
+        try {
+            genreRepository.saveAll(missing).forEach(genre -> genres.put(genre.getName(), genre));
+            return genres;
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently by another request or the catalog import.
+            return byName(genreRepository.findByNameIn(names));
+        }
+    }
+
+    private static Map<String, Genre> byName(List<Genre> genres) {
+        Map<String, Genre> byName = new HashMap<>();
+        genres.forEach(genre -> byName.put(genre.getName(), genre));
+        return byName;
+    }
+}
@@ -0,0 +1,60 @@
+package com.btg.challenge.loan;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDate;
+
+/**
+ * A returned loan moved out of the loan table by {@link LoanArchiveService}. Read-only
+ * history, so friend and game are plain ids rather than associations.
+ */
+@Entity
+@Table(name = "loan_archive")
+public class ArchivedLoan {
+    @Id
+    private Long id;
+
+    @Column(name = "friend_id", nullable = false)
+    private Long friendId;
+
+    @Column(name = "game_id", nullable = false)
+    private Long gameId;
+
+    @Column(nullable = false)
+    private LocalDate loanDate;
+
+    @Column(nullable = false)
+    private LocalDate returnDate;
+
+    private LocalDate dueDate;
+
+    public ArchivedLoan() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getFriendId() {
+        return friendId;
+    }
+
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public LocalDate getLoanDate() {
+        return loanDate;
+    }
+
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+}
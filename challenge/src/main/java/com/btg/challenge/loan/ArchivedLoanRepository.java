@@ -0,0 +1,31 @@
+package com.btg.challenge.loan;
+
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+@Repository
+public interface ArchivedLoanRepository extends JpaRepository<ArchivedLoan, Long> {
+
+    @Query("select new com.btg.challenge.loan.LoanDto(a.id, a.friendId, a.gameId, a.loanDate, a.returnDate, a.dueDate) from ArchivedLoan a where a.id > :afterId order by a.id")
+    List<LoanDto> findProjectedAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.btg.challenge.loan.LoanDto(a.id, a.friendId, a.gameId, a.loanDate, a.returnDate, a.dueDate) from ArchivedLoan a order by a.id")
+    Stream<LoanDto> streamAllProjected();
+
+    @Query("select a.gameId, count(a) from ArchivedLoan a group by a.gameId")
+    List<Object[]> countLoansPerGame();
+
+    @Query("select a.loanDate, count(a) from ArchivedLoan a group by a.loanDate")
+    List<Object[]> countLoansPerDay();
+}
@@ -0,0 +1,91 @@
+package com.btg.challenge.loan;
+
+import com.btg.challenge.shared.pagination.CursorPage;
+import com.btg.challenge.shared.pagination.Cursors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Moves loans returned before the retention cutoff from the loan table into loan_archive,
+ * so the hot table only holds open and recently returned loans. The mover walks the loan
+ * ids in ascending order and moves at most one batch per transaction, which keeps locks
+ * and undo short while the application keeps serving requests.
+ */
+@Service
+public class LoanArchiveService {
+    private static final Logger log = LoggerFactory.getLogger(LoanArchiveService.class);
+
+    private final LoanRepository loanRepository;
+    private final ArchivedLoanRepository archivedLoanRepository;
+    private final TransactionTemplate transaction;
+    private final Counter movedLoans;
+
+    @Value("${loan.archive.retention-days:90}")
+    private int retentionDays = 90;
+
+    @Value("${loan.archive.batch-size:1000}")
+    private int batchSize = 1000;
+
+    public LoanArchiveService(LoanRepository loanRepository, ArchivedLoanRepository archivedLoanRepository,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.loanRepository = loanRepository;
+        this.archivedLoanRepository = archivedLoanRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.movedLoans = Counter.builder("loan.archive.moved").register(meterRegistry);
+    }
+
+    public CursorPage<LoanDto> getArchivedLoansAfter(String cursor, int size) {
+        return Cursors.page(archivedLoanRepository.findProjectedAfter(Cursors.decode(cursor), Cursors.limit(size)), size, LoanDto::getId);
+    }
+
+    @Scheduled(initialDelayString = "${loan.archive.initial-delay:60000}", fixedDelayString = "${loan.archive.interval:3600000}")
+    public void archive() {
+        int moved = archiveReturnedBefore(LocalDate.now().minusDays(retentionDays));
+        if (moved > 0) {
+            log.info("Archived {} loans returned more than {} days ago", moved, retentionDays);
+        }
+    }
+
+    /**
+     * Moves every loan returned before {@code cutoff} to the archive and returns how many
+     * were moved.
+     */
+    public int archiveReturnedBefore(LocalDate cutoff) {
+        int moved = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            BatchResult batch = transaction.execute(status -> moveBatch(from, cutoff));
+            if (batch == null) {
+                return moved;
+            }
+            moved += batch.moved();
+            movedLoans.increment(batch.moved());
+            afterId = batch.lastId();
+        }
+    }
+
+    private BatchResult moveBatch(long afterId, LocalDate cutoff) {
+        List<Long> ids = loanRepository.findArchivableIds(afterId, cutoff, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return null;
+        }
+        loanRepository.copyToArchive(ids);
+        int deleted = loanRepository.deleteByIds(ids);
+        return new BatchResult(ids.get(ids.size() - 1), deleted);
+    }
+
+    private record BatchResult(long lastId, int moved) {
+    }
+}
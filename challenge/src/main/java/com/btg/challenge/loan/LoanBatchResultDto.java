@@ -0,0 +1,45 @@
+package com.btg.challenge.loan;
+
+/**
+ * Outcome of one item in a bulk loan request, in the same position as the item in the request.
+ */
+public class LoanBatchResultDto {
+
+    public enum Status {
+        CREATED,
+        RETURNED,
+        ALREADY_RETURNED,
+        FRIEND_NOT_FOUND,
+        GAME_NOT_FOUND,
+        GAME_ALREADY_ON_LOAN,
+        INVALID_DUE_DATE,
+        LOAN_NOT_FOUND
+    }
+
+    private Status status;
+    private LoanDto loan;
+
+    public LoanBatchResultDto() {
+    }
+
+    public LoanBatchResultDto(Status status, LoanDto loan) {
+        this.status = status;
+        this.loan = loan;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LoanDto getLoan() {
+        return loan;
+    }
+
+    public void setLoan(LoanDto loan) {
+        this.loan = loan;
+    }
+}
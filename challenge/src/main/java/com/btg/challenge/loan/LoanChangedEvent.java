@@ -0,0 +1,17 @@
+package com.btg.challenge.loan;
+
+import java.util.List;
+
+/**
+ * Published by {@link LoanService} after loans were created or returned.
+ */
+public record LoanChangedEvent(List<LoanDto> created, List<LoanDto> returned) {
+
+    public static LoanChangedEvent created(List<LoanDto> loans) {
+        return new LoanChangedEvent(loans, List.of());
+    }
+
+    public static LoanChangedEvent returned(List<LoanDto> loans) {
+        return new LoanChangedEvent(List.of(), loans);
+    }
+}
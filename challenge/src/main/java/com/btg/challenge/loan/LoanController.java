@@ -1,17 +1,35 @@
 package com.btg.challenge.loan;
 
+import com.btg.challenge.shared.pagination.CursorPage;
+import com.btg.challenge.shared.pagination.Cursors;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Comparator;
+import java.util.List;
 
 @RestController
 @RequestMapping("/loans")
 public class LoanController {
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     private final LoanService loanService;
+    private final LoanExportService loanExportService;
+    private final LoanStatistics loanStatistics;
+    private final LoanArchiveService loanArchiveService;
 
-    public LoanController(LoanService loanService) {
+    public LoanController(LoanService loanService, LoanExportService loanExportService,
+                          LoanStatistics loanStatistics, LoanArchiveService loanArchiveService) {
         this.loanService = loanService;
+        this.loanExportService = loanExportService;
+        this.loanStatistics = loanStatistics;
+        this.loanArchiveService = loanArchiveService;
     }
 
     @PostMapping
@@ -19,11 +37,70 @@ public class LoanController {
         return ResponseEntity.status(201).body(loanService.createLoan(loanRequest));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<LoanBatchResultDto>> createLoans(@RequestBody List<LoanRequestDto> loanRequests) {
+        return ResponseEntity.ok(loanService.createLoans(loanRequests));
+    }
+
     @GetMapping
     public ResponseEntity<Page<LoanDto>> getAllLoans(Pageable pageable) {
         return ResponseEntity.ok(loanService.getAllLoans(pageable));
     }
 
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<LoanDto>> getAllLoansAfter(@RequestParam String cursor,
+            @RequestParam(defaultValue = "" + Cursors.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(loanService.getLoansAfter(cursor, size));
+    }
+
+    /**
+     * Pages through archived loans, which are no longer listed by GET /loans.
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<CursorPage<LoanDto>> getArchivedLoans(@RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "" + Cursors.DEFAULT_SIZE) int size) {
+        return ResponseEntity.ok(loanArchiveService.getArchivedLoansAfter(cursor, size));
+    }
+
+    @GetMapping("/statistics")
+    public ResponseEntity<LoanStatisticsDto> getStatistics() {
+        return ResponseEntity.ok(loanStatistics.getStatistics());
+    }
+
+    /**
+     * Streams every loan as NDJSON, or as CSV when the Accept header prefers text/csv.
+     */
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<StreamingResponseBody> exportLoans(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean csv = prefersCsv(accept);
+        StreamingResponseBody body = csv ? loanExportService::writeCsv : loanExportService::writeNdjson;
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "loans.csv" : "loans.ndjson")
+                        .build().toString())
+                .body(body);
+    }
+
+    private static boolean prefersCsv(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        // Highest quality first; a type that accepts both formats, like */*, keeps NDJSON.
+        return MediaType.parseMediaTypes(accept).stream()
+                .filter(type -> type.getQualityValue() > 0)
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .filter(type -> type.isCompatibleWith(TEXT_CSV) || type.isCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .findFirst()
+                .map(type -> !type.isCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .orElse(false);
+    }
+
+    @PutMapping("/return")
+    public ResponseEntity<List<LoanBatchResultDto>> returnLoans(@RequestBody List<Long> loanIds) {
+        return ResponseEntity.ok(loanService.returnLoans(loanIds));
+    }
+
     @PutMapping("/{id}/return")
     public ResponseEntity<LoanDto> returnLoan(@PathVariable Long id) {
         return ResponseEntity.ok(loanService.returnLoan(id));
@@ -8,16 +8,22 @@ public class LoanDto {
     private Long gameId;
     private LocalDate loanDate;
     private LocalDate returnDate;
+    private LocalDate dueDate;
 
     public LoanDto() {
     }
 
     public LoanDto(Long id, Long friendId, Long gameId, LocalDate loanDate, LocalDate returnDate) {
+        this(id, friendId, gameId, loanDate, returnDate, null);
+    }
+
+    public LoanDto(Long id, Long friendId, Long gameId, LocalDate loanDate, LocalDate returnDate, LocalDate dueDate) {
         this.id = id;
         this.friendId = friendId;
         this.gameId = gameId;
         this.loanDate = loanDate;
         this.returnDate = returnDate;
+        this.dueDate = dueDate;
     }
 
     public Long getId() {
@@ -59,4 +65,12 @@ public class LoanDto {
     public void setReturnDate(LocalDate returnDate) {
         this.returnDate = returnDate;
     }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
 }
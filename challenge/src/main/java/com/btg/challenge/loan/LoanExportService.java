@@ -0,0 +1,101 @@
+package com.btg.challenge.loan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Writes the full loan history to a stream. Rows come from a forward-only database cursor
+ * as DTO projections and are written as they arrive, so memory use does not depend on
+ * the number of loans. Archived loans come first, then the loan table, each in id order.
+ */
+@Service
+public class LoanExportService {
+
+    private static final String CSV_HEADER = "id,friendId,gameId,loanDate,returnDate,dueDate";
+
+    private final LoanRepository loanRepository;
+    private final ArchivedLoanRepository archivedLoanRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter loanWriter;
+
+    public LoanExportService(LoanRepository loanRepository, ArchivedLoanRepository archivedLoanRepository,
+                             PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.loanRepository = loanRepository;
+        this.archivedLoanRepository = archivedLoanRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Both queries read one snapshot, so a loan archived during the export is written
+        // exactly once.
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.loanWriter = objectMapper.writerFor(LoanDto.class);
+    }
+
+    public void writeNdjson(OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out);
+        forEachLoan(loan -> {
+            try {
+                buffered.write(loanWriter.writeValueAsBytes(loan));
+                buffered.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        buffered.flush();
+    }
+
+    public void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        forEachLoan(loan -> {
+            try {
+                writer.write(String.valueOf(loan.getId()));
+                writer.write(',');
+                writer.write(String.valueOf(loan.getFriendId()));
+                writer.write(',');
+                writer.write(String.valueOf(loan.getGameId()));
+                writer.write(',');
+                writer.write(loan.getLoanDate() == null ? "" : loan.getLoanDate().toString());
+                writer.write(',');
+                writer.write(loan.getReturnDate() == null ? "" : loan.getReturnDate().toString());
+                writer.write(',');
+                writer.write(loan.getDueDate() == null ? "" : loan.getDueDate().toString());
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void forEachLoan(Consumer<LoanDto> action) throws IOException {
+        try {
+            // The cursor only stays open inside a transaction.
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<LoanDto> archived = archivedLoanRepository.streamAllProjected()) {
+                    archived.forEach(action);
+                }
+                try (Stream<LoanDto> loans = loanRepository.streamAllProjected()) {
+                    loans.forEach(action);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
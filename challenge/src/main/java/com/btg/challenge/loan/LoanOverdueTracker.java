@@ -0,0 +1,151 @@
+package com.btg.challenge.loan;
+
+import com.btg.challenge.shared.util.HashedTimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Detects open loans passing their due date without polling the loan table. Open loans
+ * with a due date are read once when the application is ready and kept in a
+ * {@link HashedTimingWheel}; created and returned loans are added and removed from
+ * {@link LoanChangedEvent}s after commit. Each tick only looks at the loans due in the
+ * elapsed ticks and hands the overdue ones to the {@link OverdueLoanSink}s.
+ * <p>
+ * A loan is overdue once its due date has ended. State is per node, so with several
+ * nodes every node reports the loans it knows about, and loans already overdue at
+ * startup are reported again after a restart.
+ */
+@Service
+public class LoanOverdueTracker {
+    private static final Logger log = LoggerFactory.getLogger(LoanOverdueTracker.class);
+
+    private final LoanRepository loanRepository;
+    private final List<OverdueLoanSink> sinks;
+    private final TransactionTemplate readOnlyTransaction;
+    private final LongSupplier clock;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final HashedTimingWheel<LoanDto> wheel;
+    // Loans returned while load() streams, which may still come out of its older snapshot.
+    // Guarded by the wheel; null outside of load().
+    private Set<Long> returnedWhileLoading;
+
+    @Autowired
+    public LoanOverdueTracker(LoanRepository loanRepository, List<OverdueLoanSink> sinks,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                              @Value("${loan.overdue.tick-millis:60000}") long tickMillis,
+                              @Value("${loan.overdue.wheel-size:1024}") int wheelSize) {
+        this(loanRepository, sinks, transactionManager, meterRegistry, tickMillis, wheelSize, System::currentTimeMillis);
+    }
+
+    LoanOverdueTracker(LoanRepository loanRepository, List<OverdueLoanSink> sinks,
+                       PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                       long tickMillis, int wheelSize, LongSupplier clock) {
+        this.loanRepository = loanRepository;
+        this.sinks = sinks;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.clock = clock;
+        this.wheel = new HashedTimingWheel<>(tickMillis, wheelSize, clock.getAsLong());
+        Gauge.builder("loan.overdue.tracked", this, LoanOverdueTracker::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (wheel) {
+            returnedWhileLoading = new HashSet<>();
+        }
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<LoanDto> loans = loanRepository.streamOpenWithDueDate()) {
+                    loans.forEach(this::trackLoaded);
+                }
+            });
+        } finally {
+            synchronized (wheel) {
+                returnedWhileLoading = null;
+            }
+        }
+        log.info("Tracking {} open loans with a due date", size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLoanChanged(LoanChangedEvent event) {
+        for (LoanDto loan : event.created()) {
+            if (loan.getDueDate() != null) {
+                track(loan);
+            }
+        }
+        synchronized (wheel) {
+            for (LoanDto loan : event.returned()) {
+                wheel.cancel(loan.getId());
+                if (returnedWhileLoading != null) {
+                    returnedWhileLoading.add(loan.getId());
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${loan.overdue.tick-millis:60000}")
+    public void tick() {
+        List<LoanDto> overdue = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(clock.getAsLong(), overdue::add);
+        }
+        for (LoanDto loan : overdue) {
+            for (OverdueLoanSink sink : sinks) {
+                try {
+                    sink.overdue(loan);
+                } catch (RuntimeException e) {
+                    log.warn("Overdue loan sink {} failed for loan {}", sink.getClass().getSimpleName(), loan.getId(), e);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private void track(LoanDto loan) {
+        long deadline = overdueFrom(loan.getDueDate());
+        synchronized (wheel) {
+            wheel.schedule(loan.getId(), deadline, loan);
+        }
+    }
+
+    private void trackLoaded(LoanDto loan) {
+        long deadline = overdueFrom(loan.getDueDate());
+        synchronized (wheel) {
+            if (!returnedWhileLoading.contains(loan.getId())) {
+                wheel.schedule(loan.getId(), deadline, loan);
+            }
+        }
+    }
+
+    private long overdueFrom(LocalDate dueDate) {
+        return dueDate.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+}
@@ -1,8 +1,97 @@
 package com.btg.challenge.loan;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long> {
+
+    /**
+     * Reads loans straight into DTOs from the loan table alone: the friend and game ids
+     * come from the foreign key columns, so no entity is hydrated and nothing is joined.
+     */
+    @Query(value = "select new com.btg.challenge.loan.LoanDto(l.id, l.friend.id, l.game.id, l.loanDate, l.returnDate, l.dueDate) from Loan l",
+            countQuery = "select count(l) from Loan l")
+    Page<LoanDto> findAllProjected(Pageable pageable);
+
+    @Query("select new com.btg.challenge.loan.LoanDto(l.id, l.friend.id, l.game.id, l.loanDate, l.returnDate, l.dueDate) from Loan l where l.id > :afterId order by l.id")
+    List<LoanDto> findProjectedAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Every loan in id order, fetched in chunks through a server-side cursor. Must be
+     * consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.btg.challenge.loan.LoanDto(l.id, l.friend.id, l.game.id, l.loanDate, l.returnDate, l.dueDate) from Loan l order by l.id")
+    Stream<LoanDto> streamAllProjected();
+
+    /**
+     * Open loans that have a due date, fetched in chunks through a server-side cursor. Must
+     * be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.btg.challenge.loan.LoanDto(l.id, l.friend.id, l.game.id, l.loanDate, l.returnDate, l.dueDate) from Loan l where l.returnDate is null and l.dueDate is not null")
+    Stream<LoanDto> streamOpenWithDueDate();
+
+    /**
+     * Sets the return date of a loan that is still open. Of two concurrent returns of the
+     * same loan only one updates the row; the other gets 0, as for a missing loan.
+     */
+    @Modifying
+    @Query("update Loan l set l.returnDate = :returnDate where l.id = :id and l.returnDate is null")
+    int markReturned(@Param("id") Long id, @Param("returnDate") LocalDate returnDate);
+
+    /**
+     * Loads loans locked until the transaction ends, in id order so that overlapping
+     * batches lock them in the same order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from Loan l where l.id in :ids order by l.id")
+    List<Loan> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("select l.game.id from Loan l where l.game.id in :gameIds and l.returnDate is null")
+    List<Long> findOpenLoanGameIds(@Param("gameIds") Collection<Long> gameIds);
+
+    @Query("select l.game.id, count(l) from Loan l group by l.game.id")
+    List<Object[]> countLoansPerGame();
+
+    @Query("select l.friend.id, count(l) from Loan l where l.returnDate is null group by l.friend.id")
+    List<Object[]> countActiveLoansPerFriend();
+
+    @Query("select l.loanDate, count(l) from Loan l group by l.loanDate")
+    List<Object[]> countLoansPerDay();
+
+    @Query("select l.id from Loan l where l.id > :afterId and l.returnDate < :cutoff order by l.id")
+    List<Long> findArchivableIds(@Param("afterId") Long afterId, @Param("cutoff") LocalDate cutoff, Limit limit);
+
+    /**
+     * Copies loans into loan_archive. Rows already archived, by a concurrent run on
+     * another node, are skipped.
+     */
+    @Modifying
+    @Query(value = "insert into loan_archive (id, friend_id, game_id, loan_date, return_date, due_date) "
+            + "select id, friend_id, game_id, loan_date, return_date, due_date from loan where id in :ids "
+            + "on conflict (id) do nothing", nativeQuery = true)
+    int copyToArchive(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Loan l where l.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
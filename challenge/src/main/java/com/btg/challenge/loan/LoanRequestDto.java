@@ -1,8 +1,11 @@
 package com.btg.challenge.loan;
 
+import java.time.LocalDate;
+
 public class LoanRequestDto {
     private Long friendId;
     private Long gameId;
+    private LocalDate dueDate;
 
     public LoanRequestDto() {
     }
@@ -12,6 +15,12 @@ public class LoanRequestDto {
         this.gameId = gameId;
     }
 
+    public LoanRequestDto(Long friendId, Long gameId, LocalDate dueDate) {
+        this.friendId = friendId;
+        this.gameId = gameId;
+        this.dueDate = dueDate;
+    }
+
     public Long getFriendId() {
         return friendId;
     }
@@ -27,4 +36,12 @@ public class LoanRequestDto {
     public void setGameId(Long gameId) {
         this.gameId = gameId;
     }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
 }
@@ -1,54 +1,263 @@
 package com.btg.challenge.loan;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.btg.challenge.friend.Friend;
 import com.btg.challenge.friend.FriendRepository;
 import com.btg.challenge.game.Game;
 import com.btg.challenge.game.GameRepository;
+import com.btg.challenge.loan.LoanBatchResultDto.Status;
+import com.btg.challenge.shared.exception.BadRequestException;
+import com.btg.challenge.shared.exception.ConflictException;
 import com.btg.challenge.shared.exception.ResourceNotFoundException;
+import com.btg.challenge.shared.pagination.CursorPage;
+import com.btg.challenge.shared.pagination.Cursors;
+import com.btg.challenge.shared.util.StripedLock;
 
 @Service
 public class LoanService {
+    private static final String OPEN_LOAN_CONSTRAINT = "loan_open_game_key";
+
     private final LoanRepository loanRepository;
     private final FriendRepository friendRepository;
     private final GameRepository gameRepository;
     private final LoanMapper loanMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final StripedLock gameLocks = new StripedLock(1024);
+
+    @Value("${loan.batch.max-size:1000}")
+    private int maxBatchSize = 1000;
 
-    public LoanService(LoanRepository loanRepository, FriendRepository friendRepository, GameRepository gameRepository, LoanMapper loanMapper) {
+    @Value("${loan.lock-timeout-millis:500}")
+    private long lockTimeoutMillis = 500;
+
+    public LoanService(LoanRepository loanRepository, FriendRepository friendRepository, GameRepository gameRepository,
+                       LoanMapper loanMapper, ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager) {
         this.loanRepository = loanRepository;
         this.friendRepository = friendRepository;
         this.gameRepository = gameRepository;
         this.loanMapper = loanMapper;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
     }
 
     public LoanDto createLoan(LoanRequestDto loanRequest) {
+        LocalDate today = LocalDate.now();
+        if (!isValidDueDate(loanRequest.getDueDate(), today)) {
+            throw new BadRequestException("Due date must not be before the loan date");
+        }
         Friend friend = friendRepository.findById(loanRequest.getFriendId())
                 .orElseThrow(() -> new ResourceNotFoundException("Friend not found"));
         Game game = gameRepository.findById(loanRequest.getGameId())
                 .orElseThrow(() -> new ResourceNotFoundException("Game not found"));
 
-        Loan loan = new Loan();
-        loan.setFriend(friend);
-        loan.setGame(game);
-        loan.setLoanDate(LocalDate.now());
+        // The lock makes check-then-insert atomic on this node; the partial unique index
+        // on open loans settles races with other nodes.
+        return gameLocks.withLocks(List.of(game.getId()), lockTimeoutMillis, () -> {
+            if (!loanRepository.findOpenLoanGameIds(List.of(game.getId())).isEmpty()) {
+                throw gameAlreadyOnLoan();
+            }
+            Loan loan = new Loan();
+            loan.setFriend(friend);
+            loan.setGame(game);
+            loan.setLoanDate(today);
+            loan.setDueDate(loanRequest.getDueDate());
 
-        return loanMapper.toDto(loanRepository.save(loan));
+            LoanDto created;
+            try {
+                created = loanMapper.toDto(loanRepository.save(loan));
+            } catch (DataIntegrityViolationException e) {
+                throw translateOpenLoanViolation(e);
+            }
+            eventPublisher.publishEvent(LoanChangedEvent.created(List.of(created)));
+            return created;
+        }, this::gameBusy);
     }
 
     public Page<LoanDto> getAllLoans(Pageable pageable) {
-        return loanRepository.findAll(pageable)
-                .map(loanMapper::toDto);
+        return loanRepository.findAllProjected(pageable);
+    }
+
+    public CursorPage<LoanDto> getLoansAfter(String cursor, int size) {
+        return Cursors.page(loanRepository.findProjectedAfter(Cursors.decode(cursor), Cursors.limit(size)), size, LoanDto::getId);
     }
 
+    /**
+     * Returns a loan. The return date is only set while the loan is open, in one
+     * conditional update, so concurrent returns publish the change once. A loan already
+     * returned keeps its return date.
+     */
+    @Transactional
     public LoanDto returnLoan(Long id) {
-        Loan loan = loanRepository.findById(id)
+        boolean returned = loanRepository.markReturned(id, LocalDate.now()) == 1;
+        LoanDto loan = loanRepository.findById(id)
+                .map(loanMapper::toDto)
                 .orElseThrow(() -> new ResourceNotFoundException("Loan not found"));
-        loan.setReturnDate(LocalDate.now());
-        return loanMapper.toDto(loanRepository.save(loan));
+        if (returned) {
+            eventPublisher.publishEvent(LoanChangedEvent.returned(List.of(loan)));
+        }
+        return loan;
+    }
+
+    /**
+     * Creates many loans in one transaction. Friends, games and already lent games are
+     * resolved with one query each and the inserts go out as JDBC batches; items that
+     * cannot be lent are reported instead of failing the whole batch. The game locks are
+     * held until the transaction has committed, so no other request on this node can lend
+     * the same games in between. A game lent by another node meanwhile makes the commit
+     * fail on the open loan index; the batch is then rolled back and run once more, and
+     * the retry finds that game on loan and reports it.
+     */
+    public List<LoanBatchResultDto> createLoans(List<LoanRequestDto> loanRequests) {
+        checkBatchSize(loanRequests);
+        List<Long> gameIds = ids(loanRequests, LoanRequestDto::getGameId);
+        return gameLocks.withLocks(gameIds, lockTimeoutMillis, () -> {
+            try {
+                return transaction.execute(status -> lendAll(loanRequests, gameIds));
+            } catch (DataIntegrityViolationException e) {
+                if (!isOpenLoanViolation(e)) {
+                    throw e;
+                }
+            }
+            try {
+                return transaction.execute(status -> lendAll(loanRequests, gameIds));
+            } catch (DataIntegrityViolationException e) {
+                throw translateOpenLoanViolation(e);
+            }
+        }, this::gameBusy);
+    }
+
+    private List<LoanBatchResultDto> lendAll(List<LoanRequestDto> loanRequests, List<Long> gameIds) {
+        Map<Long, Friend> friends = byId(friendRepository.findAllById(ids(loanRequests, LoanRequestDto::getFriendId)), Friend::getId);
+        Map<Long, Game> games = byId(gameRepository.findAllById(gameIds), Game::getId);
+        Set<Long> lentGameIds = gameIds.isEmpty() ? new HashSet<>() : new HashSet<>(loanRepository.findOpenLoanGameIds(gameIds));
+
+        List<LoanBatchResultDto> results = new ArrayList<>(loanRequests.size());
+        List<Loan> loans = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (LoanRequestDto request : loanRequests) {
+            Friend friend = request.getFriendId() == null ? null : friends.get(request.getFriendId());
+            Game game = request.getGameId() == null ? null : games.get(request.getGameId());
+            if (friend == null) {
+                results.add(new LoanBatchResultDto(Status.FRIEND_NOT_FOUND, null));
+            } else if (game == null) {
+                results.add(new LoanBatchResultDto(Status.GAME_NOT_FOUND, null));
+            } else if (!isValidDueDate(request.getDueDate(), today)) {
+                results.add(new LoanBatchResultDto(Status.INVALID_DUE_DATE, null));
+            } else if (!lentGameIds.add(game.getId())) {
+                results.add(new LoanBatchResultDto(Status.GAME_ALREADY_ON_LOAN, null));
+            } else {
+                Loan loan = new Loan(null, friend, game, today, null);
+                loan.setDueDate(request.getDueDate());
+                positions.add(results.size());
+                loans.add(loan);
+                results.add(null);
+            }
+        }
+
+        List<Loan> saved = loanRepository.saveAll(loans);
+        List<LoanDto> created = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            LoanDto dto = loanMapper.toDto(saved.get(i));
+            created.add(dto);
+            results.set(positions.get(i), new LoanBatchResultDto(Status.CREATED, dto));
+        }
+        if (!created.isEmpty()) {
+            // Delivered to after-commit listeners only if the batch commits.
+            eventPublisher.publishEvent(LoanChangedEvent.created(created));
+        }
+        return results;
+    }
+
+    /**
+     * Returns many loans in one transaction: one query loads them and the updates are
+     * flushed as JDBC batches on commit. Loans already returned keep their return date.
+     * The loans are locked while loading, so a concurrent return waits and then sees them
+     * returned.
+     */
+    @Transactional
+    public List<LoanBatchResultDto> returnLoans(List<Long> loanIds) {
+        checkBatchSize(loanIds);
+        List<Long> ids = ids(loanIds, Function.identity());
+        Map<Long, Loan> loans = ids.isEmpty() ? Map.of() : byId(loanRepository.findAllByIdForUpdate(ids), Loan::getId);
+
+        List<LoanBatchResultDto> results = new ArrayList<>(loanIds.size());
+        List<LoanDto> returned = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (Long id : loanIds) {
+            Loan loan = id == null ? null : loans.get(id);
+            if (loan == null) {
+                results.add(new LoanBatchResultDto(Status.LOAN_NOT_FOUND, null));
+            } else if (loan.getReturnDate() != null) {
+                results.add(new LoanBatchResultDto(Status.ALREADY_RETURNED, loanMapper.toDto(loan)));
+            } else {
+                loan.setReturnDate(today);
+                LoanDto dto = loanMapper.toDto(loan);
+                returned.add(dto);
+                results.add(new LoanBatchResultDto(Status.RETURNED, dto));
+            }
+        }
+        if (!returned.isEmpty()) {
+            // Delivered to after-commit listeners only once the updates are flushed.
+            eventPublisher.publishEvent(LoanChangedEvent.returned(returned));
+        }
+        return results;
+    }
+
+    private static boolean isValidDueDate(LocalDate dueDate, LocalDate loanDate) {
+        return dueDate == null || !dueDate.isBefore(loanDate);
+    }
+
+    private RuntimeException translateOpenLoanViolation(DataIntegrityViolationException e) {
+        return isOpenLoanViolation(e) ? gameAlreadyOnLoan() : e;
+    }
+
+    private static boolean isOpenLoanViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && OPEN_LOAN_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName());
+    }
+
+    private ConflictException gameAlreadyOnLoan() {
+        return new ConflictException("Game is already on loan");
+    }
+
+    private ConflictException gameBusy() {
+        return new ConflictException("Game is being lent by another request, please retry");
+    }
+
+    private void checkBatchSize(List<?> items) {
+        if (items.size() > maxBatchSize) {
+            throw new BadRequestException("Batch size must not exceed " + maxBatchSize);
+        }
+    }
+
+    private static <T> List<Long> ids(List<T> items, Function<T, Long> id) {
+        return items.stream().map(id).filter(Objects::nonNull).distinct().toList();
+    }
+
+    private static <E> Map<Long, E> byId(List<E> entities, Function<E, Long> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity()));
     }
 }
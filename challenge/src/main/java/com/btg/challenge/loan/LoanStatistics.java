@@ -0,0 +1,234 @@
+package com.btg.challenge.loan;
+
+import com.btg.challenge.loan.LoanStatisticsDto.GameLoans;
+import com.btg.challenge.shared.util.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory loan aggregates: loans per game, open loans per friend and loans per day,
+ * archived loans included. They are loaded with GROUP BY queries when the application is
+ * ready and then kept up to date from {@link LoanChangedEvent}s applied after commit, so
+ * reads never touch the loan tables.
+ * <p>
+ * Every view is maintained incrementally, the top games included, so neither applying an
+ * event nor serving a read costs more than the size of the top list. The per-friend and
+ * per-day maps of a snapshot are read-only views of the live aggregates.
+ * <p>
+ * State is per node: loans changed on other nodes are not seen until the next rebuild.
+ * {@link #verify()} compares the aggregates with the database.
+ */
+@Service
+public class LoanStatistics {
+    private static final Logger log = LoggerFactory.getLogger(LoanStatistics.class);
+
+    private final LoanRepository loanRepository;
+    private final ArchivedLoanRepository archivedLoanRepository;
+
+    @Value("${loan.statistics.top-games:10}")
+    private int topGamesSize = 10;
+
+    private Aggregates aggregates = new Aggregates();
+    private volatile LoanStatisticsDto snapshot;
+
+    public LoanStatistics(LoanRepository loanRepository, ArchivedLoanRepository archivedLoanRepository) {
+        this.loanRepository = loanRepository;
+        this.archivedLoanRepository = archivedLoanRepository;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onLoanChanged(LoanChangedEvent event) {
+        for (LoanDto loan : event.created()) {
+            aggregates.created(loan.getGameId(), loan.getFriendId(), loan.getLoanDate(), topGamesSize);
+        }
+        for (LoanDto loan : event.returned()) {
+            aggregates.returned(loan.getFriendId());
+        }
+        snapshot = null;
+    }
+
+    public LoanStatisticsDto getStatistics() {
+        LoanStatisticsDto current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = aggregates.toDto();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Replaces the aggregates with freshly queried ones. Loans changed while the queries
+     * run may be counted twice or not at all; {@link #verify()} tells whether that happened.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Aggregates loaded = load();
+        synchronized (this) {
+            aggregates = loaded;
+            snapshot = null;
+        }
+        log.info("Loaded loan statistics: {} loans, {} active", loaded.totalLoans, loaded.activeLoans);
+    }
+
+    /**
+     * Compares the in-memory aggregates with the database and returns the differences.
+     */
+    public Map<String, Object> verify() {
+        Aggregates expected = load();
+        Map<String, Map<?, ?>> differences = new LinkedHashMap<>();
+        synchronized (this) {
+            differences.put("totalLoans", diff(aggregates.totalLoans, expected.totalLoans));
+            differences.put("activeLoans", diff(aggregates.activeLoans, expected.activeLoans));
+            differences.put("loansPerGame", diff(aggregates.loansPerGame, expected.loansPerGame));
+            differences.put("activeLoansPerFriend", diff(aggregates.activeLoansPerFriend, expected.activeLoansPerFriend));
+            differences.put("loansPerDay", diff(aggregates.loansPerDay, expected.loansPerDay));
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("consistent", differences.values().stream().allMatch(Map::isEmpty));
+        report.put("differences", differences);
+        return report;
+    }
+
+    private Aggregates load() {
+        Aggregates loaded = new Aggregates();
+        // Archived loans are all returned, so they only add to the totals, never to active loans.
+        for (List<Object[]> perGame : List.of(loanRepository.countLoansPerGame(), archivedLoanRepository.countLoansPerGame())) {
+            for (Object[] row : perGame) {
+                int count = ((Number) row[1]).intValue();
+                loaded.loansPerGame.addTo((Long) row[0], count);
+                loaded.totalLoans += count;
+            }
+        }
+        loaded.loansPerGame.forEach((gameId, loans) -> loaded.topGames.offer(gameId, loans, topGamesSize));
+        for (Object[] row : loanRepository.countActiveLoansPerFriend()) {
+            int count = ((Number) row[1]).intValue();
+            loaded.activeLoansPerFriend.merge((Long) row[0], count, LoanStatistics::sum);
+            loaded.activeLoans += count;
+        }
+        for (List<Object[]> perDay : List.of(loanRepository.countLoansPerDay(), archivedLoanRepository.countLoansPerDay())) {
+            for (Object[] row : perDay) {
+                loaded.loansPerDay.merge((LocalDate) row[0], ((Number) row[1]).intValue(), LoanStatistics::sum);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Merge function that drops the entry when the counts cancel out.
+     */
+    private static Integer sum(Integer current, Integer delta) {
+        int value = current + delta;
+        return value == 0 ? null : value;
+    }
+
+    private static Map<String, Long> diff(long actual, long expected) {
+        return actual == expected ? Map.of() : Map.of("memory", actual, "database", expected);
+    }
+
+    private static Map<Long, Map<String, Integer>> diff(LongIntHashMap actual, LongIntHashMap expected) {
+        Map<Long, Map<String, Integer>> differences = new TreeMap<>();
+        actual.forEach((key, value) -> {
+            if (expected.get(key) != value) {
+                differences.put(key, Map.of("memory", value, "database", expected.get(key)));
+            }
+        });
+        expected.forEach((key, value) -> {
+            if (actual.get(key) == 0) {
+                differences.put(key, Map.of("memory", 0, "database", value));
+            }
+        });
+        return differences;
+    }
+
+    private static <K> Map<K, Map<String, Integer>> diff(Map<K, Integer> actual, Map<K, Integer> expected) {
+        Map<K, Map<String, Integer>> differences = new TreeMap<>();
+        actual.forEach((key, value) -> {
+            int database = expected.getOrDefault(key, 0);
+            if (database != value) {
+                differences.put(key, Map.of("memory", value, "database", database));
+            }
+        });
+        expected.forEach((key, value) -> {
+            if (!actual.containsKey(key)) {
+                differences.put(key, Map.of("memory", 0, "database", value));
+            }
+        });
+        return differences;
+    }
+
+    private static final class Aggregates {
+        private final LongIntHashMap loansPerGame = new LongIntHashMap(1024);
+        private final TopGames topGames = new TopGames();
+        private final Map<Long, Integer> activeLoansPerFriend = new ConcurrentHashMap<>();
+        private final Map<LocalDate, Integer> loansPerDay = new ConcurrentSkipListMap<>();
+        private long totalLoans;
+        private long activeLoans;
+
+        void created(long gameId, long friendId, LocalDate loanDate, int topGamesSize) {
+            topGames.offer(gameId, loansPerGame.addTo(gameId, 1), topGamesSize);
+            activeLoansPerFriend.merge(friendId, 1, LoanStatistics::sum);
+            loansPerDay.merge(loanDate, 1, LoanStatistics::sum);
+            totalLoans++;
+            activeLoans++;
+        }
+
+        void returned(long friendId) {
+            activeLoansPerFriend.merge(friendId, -1, LoanStatistics::sum);
+            activeLoans--;
+        }
+
+        LoanStatisticsDto toDto() {
+            return new LoanStatisticsDto(totalLoans, activeLoans, topGames.toList(),
+                    Collections.unmodifiableMap(activeLoansPerFriend), Collections.unmodifiableMap(loansPerDay));
+        }
+    }
+
+    /**
+     * Most-lent games, best first. Between rebuilds a game's count only grows, so every game
+     * outside the list ranks below every game in it, and a changed count only needs to be
+     * placed against the list itself: O(topGamesSize) per loan.
+     */
+    private static final class TopGames {
+        private static final Comparator<GameLoans> ORDER = Comparator.comparingInt(GameLoans::getLoans).reversed()
+                .thenComparing(GameLoans::getGameId);
+
+        private final List<GameLoans> games = new ArrayList<>();
+
+        void offer(long gameId, int loans, int topGamesSize) {
+            games.removeIf(game -> game.getGameId() == gameId);
+            GameLoans candidate = new GameLoans(gameId, loans);
+            int position = -Collections.binarySearch(games, candidate, ORDER) - 1;
+            if (position < topGamesSize) {
+                games.add(position, candidate);
+                if (games.size() > topGamesSize) {
+                    games.remove(topGamesSize);
+                }
+            }
+        }
+
+        List<GameLoans> toList() {
+            return List.copyOf(games);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.btg.challenge.loan;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public class LoanStatisticsDto {
+    private long totalLoans;
+    private long activeLoans;
+    private List<GameLoans> topGames;
+    private Map<Long, Integer> activeLoansPerFriend;
+    private Map<LocalDate, Integer> loansPerDay;
+
+    public LoanStatisticsDto() {
+    }
+
+    public LoanStatisticsDto(long totalLoans, long activeLoans, List<GameLoans> topGames,
+                             Map<Long, Integer> activeLoansPerFriend, Map<LocalDate, Integer> loansPerDay) {
+        this.totalLoans = totalLoans;
+        this.activeLoans = activeLoans;
+        this.topGames = topGames;
+        this.activeLoansPerFriend = activeLoansPerFriend;
+        this.loansPerDay = loansPerDay;
+    }
+
+    public long getTotalLoans() {
+        return totalLoans;
+    }
+
+    public void setTotalLoans(long totalLoans) {
+        this.totalLoans = totalLoans;
+    }
+
+    public long getActiveLoans() {
+        return activeLoans;
+    }
+
+    public void setActiveLoans(long activeLoans) {
+        this.activeLoans = activeLoans;
+    }
+
+    public List<GameLoans> getTopGames() {
+        return topGames;
+    }
+
+    public void setTopGames(List<GameLoans> topGames) {
+        this.topGames = topGames;
+    }
+
+    public Map<Long, Integer> getActiveLoansPerFriend() {
+        return activeLoansPerFriend;
+    }
+
+    public void setActiveLoansPerFriend(Map<Long, Integer> activeLoansPerFriend) {
+        this.activeLoansPerFriend = activeLoansPerFriend;
+    }
+
+    public Map<LocalDate, Integer> getLoansPerDay() {
+        return loansPerDay;
+    }
+
+    public void setLoansPerDay(Map<LocalDate, Integer> loansPerDay) {
+        this.loansPerDay = loansPerDay;
+    }
+
+    public static class GameLoans {
+        private Long gameId;
+        private int loans;
+
+        public GameLoans() {
+        }
+
+        public GameLoans(Long gameId, int loans) {
+            this.gameId = gameId;
+            this.loans = loans;
+        }
+
+        public Long getGameId() {
+            return gameId;
+        }
+
+        public void setGameId(Long gameId) {
+            this.gameId = gameId;
+        }
+
+        public int getLoans() {
+            return loans;
+        }
+
+        public void setLoans(int loans) {
+            this.loans = loans;
+        }
+    }
+}
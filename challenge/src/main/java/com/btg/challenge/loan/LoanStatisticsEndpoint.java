@@ -0,0 +1,34 @@
+package com.btg.challenge.loan;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint at {@code /actuator/loanstats}. A GET compares the in-memory loan
+ * statistics with the database; a POST reloads them from the database.
+ */
+@Component
+@Endpoint(id = "loanstats")
+public class LoanStatisticsEndpoint {
+
+    private final LoanStatistics loanStatistics;
+
+    public LoanStatisticsEndpoint(LoanStatistics loanStatistics) {
+        this.loanStatistics = loanStatistics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> verify() {
+        return loanStatistics.verify();
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        loanStatistics.rebuild();
+        return loanStatistics.verify();
+    }
+}
@@ -0,0 +1,16 @@
+package com.btg.challenge.loan;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LoggingOverdueLoanSink implements OverdueLoanSink {
+    private static final Logger log = LoggerFactory.getLogger(LoggingOverdueLoanSink.class);
+
+    @Override
+    public void overdue(LoanDto loan) {
+        log.warn("Loan {} of game {} to friend {} is overdue since {}",
+                loan.getId(), loan.getGameId(), loan.getFriendId(), loan.getDueDate());
+    }
+}
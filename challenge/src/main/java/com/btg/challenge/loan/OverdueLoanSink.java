@@ -0,0 +1,10 @@
+package com.btg.challenge.loan;
+
+/**
+ * Receives loans that passed their due date without being returned. Every bean of this
+ * type is notified by {@link LoanOverdueTracker}, once per loan and node.
+ */
+public interface OverdueLoanSink {
+
+    void overdue(LoanDto loan);
+}
@@ -1,5 +1,7 @@
 package com.btg.challenge.shared.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,14 +9,20 @@ import org.springframework.context.support.ReloadableResourceBundleMessageSource
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import static org.springframework.data.web.config.EnableSpringDataWebSupport.PageSerializationMode.VIA_DTO;
 
+import java.time.Duration;
+import java.util.Map;
+
 
 @Configuration
 @EnableSpringDataWebSupport(pageSerializationMode = VIA_DTO)
+@EnableScheduling
 public class AppConfig {
 
     @Bean
@@ -25,9 +33,18 @@ public class AppConfig {
         return messageSource;
     }
 
+    /**
+     * Bounded timeouts, so an unreachable game API fails the background import instead of
+     * hanging it.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Value("${game-api.connect-timeout-millis:2000}") long connectTimeoutMillis,
+                                     @Value("${game-api.read-timeout-millis:10000}") long readTimeoutMillis) {
+        return builder
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .readTimeout(Duration.ofMillis(readTimeoutMillis))
+                .build();
     }
 
     @Bean
@@ -35,8 +52,19 @@ public class AppConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * Encodes new passwords as {bcrypt} with a strength calibrated to the target hash time.
+     * Hashes stored before the {id} prefix existed still match through the default encoder,
+     * and {@link PasswordEncoder#upgradeEncoding} reports them (and weaker strengths) as outdated.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.target-hash-millis:250}") long targetHashMillis,
+                                           @Value("${security.password.min-strength:10}") int minStrength,
+                                           @Value("${security.password.max-strength:16}") int maxStrength) {
+        int strength = BCryptStrengthCalibrator.calibrate(targetHashMillis, minStrength, maxStrength);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 }
@@ -0,0 +1,34 @@
+package com.btg.challenge.shared.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt log-rounds whose hash time on this machine is closest to, without
+ * exceeding, a target. Each extra round doubles the cost, so one timed hash at the
+ * minimum strength is enough to extrapolate.
+ */
+public final class BCryptStrengthCalibrator {
+    private static final Logger log = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        encoder.encode(SAMPLE_PASSWORD); // warm-up
+
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        double elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000.0, 0.001);
+
+        int extraRounds = (int) Math.floor(Math.log(targetMillis / elapsedMillis) / Math.log(2));
+        int strength = Math.max(minStrength, Math.min(maxStrength, minStrength + extraRounds));
+        log.info("BCrypt strength {} at {} ms per hash; calibrated strength {} for a {} ms target.",
+                minStrength, String.format("%.1f", elapsedMillis), strength, targetMillis);
+        return strength;
+    }
+}
@@ -0,0 +1,31 @@
+package com.btg.challenge.shared.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.users.maximum-size:10000}") long usersMaximumSize,
+                                     @Value("${cache.users.ttl:600}") long usersTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // recordStats feeds the cache.gets/cache.evictions meters bound by the actuator.
+        cacheManager.registerCustomCache(USERS_CACHE, Caffeine.newBuilder()
+                .maximumSize(usersMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(usersTtl))
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
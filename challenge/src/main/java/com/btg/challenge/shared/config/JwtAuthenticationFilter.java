@@ -1,8 +1,13 @@
 package com.btg.challenge.shared.config;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -10,6 +15,10 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.btg.challenge.shared.config.JwtAuthenticationCache.CachedAuthentication;
+import com.btg.challenge.shared.service.TokenRevocationService;
+import com.btg.challenge.user.User;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,36 +29,94 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final JwtAuthenticationCache authenticationCache;
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * When enabled the Authentication is built from the verified token claims only,
+     * skipping the users table. Deleted users and changed authorities then stay
+     * effective until the token expires.
+     */
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService,
+                                   JwtAuthenticationCache authenticationCache, TokenRevocationService tokenRevocationService) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.authenticationCache = authenticationCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
-        username = jwtTokenProvider.extractUsername(jwt);
+        final String jwt = authHeader.substring(7);
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtTokenProvider.validateToken(jwt, userDetails)) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authentication;
+            CachedAuthentication cached = authenticationCache.get(jwt);
+            if (cached == null) {
+                authentication = authenticate(jwt);
+            } else {
+                // Hits are checked too: a request verified before a concurrent logout can
+                // put the token back into the cache after logout evicted it.
+                authentication = tokenRevocationService.isRevoked(cached.tokenId()) ? null : cached.authentication();
+            }
+            if (authentication != null) {
+                // The cached instance is shared, so per-request details go on a copy.
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        authentication.getPrincipal(), null, authentication.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    private UsernamePasswordAuthenticationToken authenticate(String jwt) {
+        final VerifiedToken token = jwtTokenProvider.verify(jwt);
+        if (token.subject() == null || tokenRevocationService.isRevoked(token.id())) {
+            return null;
+        }
+        UsernamePasswordAuthenticationToken authentication = stateless
+                ? authenticationFromClaims(token)
+                : authenticationFromUserDetails(token);
+        if (authentication != null) {
+            authenticationCache.put(jwt, authentication, token.id(), token.expiration());
+        }
+        return authentication;
+    }
+
+    private UsernamePasswordAuthenticationToken authenticationFromUserDetails(VerifiedToken token) {
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(token.subject());
+        if (!token.subject().equals(userDetails.getUsername())) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private UsernamePasswordAuthenticationToken authenticationFromClaims(VerifiedToken token) {
+        Number userId = token.claims().get(JwtTokenProvider.CLAIM_USER_ID, Number.class);
+        User principal = new User(userId == null ? null : userId.longValue(), token.subject(), null);
+        return new UsernamePasswordAuthenticationToken(principal, null, authoritiesFromClaims(token));
+    }
+
+    private Collection<? extends GrantedAuthority> authoritiesFromClaims(VerifiedToken token) {
+        Object roles = token.claims().get(JwtTokenProvider.CLAIM_AUTHORITIES);
+        if (!(roles instanceof Collection<?> values)) {
+            return List.of();
+        }
+        return values.stream()
+                .map(String::valueOf)
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+    }
 }
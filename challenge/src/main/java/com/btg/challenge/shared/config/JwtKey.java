@@ -0,0 +1,90 @@
+package com.btg.challenge.shared.config;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.WeakKeyException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * A key identified by the {@code kid} header of the tokens it signs. The key objects are
+ * derived once when the key enters the ring. For asymmetric algorithms {@code signingKey}
+ * is null on nodes that only hold the public key and therefore can verify but not sign.
+ */
+public record JwtKey(String id, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey) {
+
+    public boolean canSign() {
+        return signingKey != null;
+    }
+
+    /**
+     * Whether {@code other} verifies the same tokens: same algorithm and verification key.
+     */
+    public boolean hasSameMaterial(JwtKey other) {
+        return algorithm == other.algorithm
+                && MessageDigest.isEqual(verificationKey.getEncoded(), other.verificationKey.getEncoded());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the secret is too short for {@code algorithm}, so
+     * that a bad configuration fails at startup rather than on the first signed token
+     */
+    public static JwtKey hmac(String id, SignatureAlgorithm algorithm, String secret) {
+        requireFamily(algorithm, algorithm.isHmac(), "HMAC");
+        try {
+            Key key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+            algorithm.assertValidSigningKey(key);
+            return new JwtKey(id, algorithm, key, key);
+        } catch (WeakKeyException e) {
+            throw new IllegalArgumentException("Secret for key id " + id + " is too short for " + algorithm, e);
+        }
+    }
+
+    /**
+     * @param privateKey base64 or PEM encoded PKCS#8 key, or null/blank for a verify-only key
+     * @param publicKey base64 or PEM encoded X.509 key
+     */
+    public static JwtKey asymmetric(String id, SignatureAlgorithm algorithm, String privateKey, String publicKey) {
+        requireFamily(algorithm, algorithm.isRsa() || algorithm.isEllipticCurve(), "RSA or EC");
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(algorithm.getFamilyName().equals("ECDSA") ? "EC" : "RSA");
+            PublicKey verificationKey = keyFactory.generatePublic(new X509EncodedKeySpec(decode(publicKey)));
+            PrivateKey signingKey = privateKey == null || privateKey.isBlank()
+                    ? null
+                    : keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decode(privateKey)));
+            return new JwtKey(id, algorithm, signingKey, verificationKey);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid " + algorithm + " key material for key id " + id, e);
+        }
+    }
+
+    public static JwtKey generated(String id, SignatureAlgorithm algorithm) {
+        if (algorithm.isHmac()) {
+            Key key = Keys.secretKeyFor(algorithm);
+            return new JwtKey(id, algorithm, key, key);
+        }
+        KeyPair keyPair = Keys.keyPairFor(algorithm);
+        return new JwtKey(id, algorithm, keyPair.getPrivate(), keyPair.getPublic());
+    }
+
+    private static byte[] decode(String encoded) {
+        String base64 = encoded.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static void requireFamily(SignatureAlgorithm algorithm, boolean matches, String family) {
+        if (!matches) {
+            throw new IllegalArgumentException(algorithm + " is not an " + family + " algorithm");
+        }
+    }
+}
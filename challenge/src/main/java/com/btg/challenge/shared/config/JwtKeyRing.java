@@ -0,0 +1,69 @@
+package com.btg.challenge.shared.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable set of keys accepted for verification, newest first. The first key is the
+ * one new tokens are signed with. Rotation produces a new ring so readers never see a
+ * partially updated set.
+ */
+public final class JwtKeyRing {
+
+    private final Map<String, JwtKey> keys;
+    private final JwtKey active;
+
+    private JwtKeyRing(Map<String, JwtKey> keys) {
+        this.keys = Collections.unmodifiableMap(keys);
+        this.active = keys.values().iterator().next();
+    }
+
+    public static JwtKeyRing of(JwtKey active, List<JwtKey> previous) {
+        Map<String, JwtKey> keys = new LinkedHashMap<>();
+        keys.put(active.id(), active);
+        previous.forEach(key -> keys.putIfAbsent(key.id(), key));
+        return new JwtKeyRing(keys);
+    }
+
+    /**
+     * Returns a ring where {@code newKey} signs new tokens and at most {@code retainedKeys}
+     * keys in total remain valid for verification. A key id already in the ring is only
+     * accepted again with the same key material, which leaves the ring unchanged; other
+     * material would invalidate every token signed under that id.
+     *
+     * @throws IllegalArgumentException if the key id is in the ring with other material
+     */
+    public JwtKeyRing rotate(JwtKey newKey, int retainedKeys) {
+        JwtKey existing = keys.get(newKey.id());
+        if (existing != null) {
+            if (!existing.hasSameMaterial(newKey)) {
+                throw new IllegalArgumentException("Key id " + newKey.id() + " is already in use with other key material");
+            }
+            return this;
+        }
+        Map<String, JwtKey> rotated = new LinkedHashMap<>();
+        rotated.put(newKey.id(), newKey);
+        for (JwtKey key : keys.values()) {
+            if (rotated.size() >= Math.max(retainedKeys, 1)) {
+                break;
+            }
+            rotated.putIfAbsent(key.id(), key);
+        }
+        return new JwtKeyRing(rotated);
+    }
+
+    public JwtKey active() {
+        return active;
+    }
+
+    public JwtKey find(String id) {
+        return keys.get(id);
+    }
+
+    public List<String> keyIds() {
+        return new ArrayList<>(keys.keySet());
+    }
+}
@@ -0,0 +1,75 @@
+package com.btg.challenge.shared.config;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint at {@code /actuator/jwtkeys}. A POST rotates the signing key without a
+ * restart; tokens signed by retained keys stay valid. In a multi-node deployment pass the
+ * same {@code keyId} and key material ({@code secret} for HMAC, {@code publicKey} and
+ * {@code privateKey} otherwise) to every node, otherwise generated keys are only known to
+ * the node that generated them. For asymmetric algorithms the response includes the active
+ * public key so verify-only nodes can be given it.
+ */
+@Component
+@Endpoint(id = "jwtkeys")
+public class JwtKeyRotationEndpoint {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final JwtAuthenticationCache authenticationCache;
+
+    public JwtKeyRotationEndpoint(JwtTokenProvider jwtTokenProvider, JwtAuthenticationCache authenticationCache) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.authenticationCache = authenticationCache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> keys() {
+        JwtKeyRing ring = jwtTokenProvider.getKeyRing();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("algorithm", ring.active().algorithm().getValue());
+        body.put("active", ring.active().id());
+        body.put("keys", ring.keyIds());
+        if (!ring.active().algorithm().isHmac()) {
+            body.put("publicKey", Base64.getEncoder().encodeToString(ring.active().verificationKey().getEncoded()));
+        }
+        return body;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rotate(@Nullable String keyId, @Nullable String secret,
+                                      @Nullable String publicKey, @Nullable String privateKey) {
+        List<String> before = jwtTokenProvider.getKeyRing().keyIds();
+        try {
+            jwtTokenProvider.rotate(newKey(keyId != null ? keyId : "k" + System.currentTimeMillis(), secret, publicKey, privateKey));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        if (!jwtTokenProvider.getKeyRing().keyIds().containsAll(before)) {
+            // A key fell out of the ring; cached authentications may belong to its tokens.
+            authenticationCache.invalidateAll();
+        }
+        return keys();
+    }
+
+    private JwtKey newKey(String keyId, String secret, String publicKey, String privateKey) {
+        SignatureAlgorithm algorithm = jwtTokenProvider.getSignatureAlgorithm();
+        if (algorithm.isHmac() && secret != null) {
+            return JwtKey.hmac(keyId, algorithm, secret);
+        }
+        if (!algorithm.isHmac() && publicKey != null) {
+            return JwtKey.asymmetric(keyId, algorithm, privateKey, publicKey);
+        }
+        return JwtKey.generated(keyId, algorithm);
+    }
+}
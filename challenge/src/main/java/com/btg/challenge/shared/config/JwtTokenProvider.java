@@ -1,46 +1,155 @@
 package com.btg.challenge.shared.config;
 
+import com.btg.challenge.user.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret}")
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_AUTHORITIES = "roles";
+
+    /** Any HS, RS, PS or ES variant supported by jjwt, e.g. HS256 or ES256. */
+    @Value("${jwt.algorithm:HS256}")
+    private String algorithm = "HS256";
+
+    /** Signing secret for HMAC algorithms. */
+    @Value("${jwt.secret:}")
     private String secret;
 
+    /** PKCS#8 private key for RS/PS/ES algorithms; leave empty on verify-only nodes. */
+    @Value("${jwt.private-key:}")
+    private String privateKey = "";
+
+    /** X.509 public key for RS/PS/ES algorithms. */
+    @Value("${jwt.public-key:}")
+    private String publicKey = "";
+
     @Value("${jwt.expiration}")
     private long expiration;
 
+    @Value("${jwt.key-id:primary}")
+    private String keyId = "primary";
+
+    /** Verification-only keys as comma separated {@code kid=secret} (HMAC) or {@code kid=publicKey} pairs. */
+    @Value("${jwt.previous-keys:}")
+    private String previousKeys = "";
+
+    @Value("${jwt.retained-keys:3}")
+    private int retainedKeys = 3;
+
+    private final AtomicReference<JwtKeyRing> keyRing = new AtomicReference<>();
+
+    private SignatureAlgorithm signatureAlgorithm;
+
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        this.signatureAlgorithm = SignatureAlgorithm.forName(algorithm);
+        List<JwtKey> previous = new ArrayList<>();
+        for (String entry : previousKeys.split(",")) {
+            // Split on the first '=' only; base64 key material may end with padding.
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length == 2) {
+                previous.add(configuredKey(parts[0].trim(), parts[1].trim(), null));
+            }
+        }
+        JwtKey active = signatureAlgorithm.isHmac()
+                ? configuredKey(keyId, secret, null)
+                : configuredKey(keyId, publicKey, privateKey);
+        this.keyRing.set(JwtKeyRing.of(active, previous));
+        // The resolver reads the current ring on every parse, so rotation never rebuilds the parser.
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyRingResolver())
+                .build();
+    }
+
+    /**
+     * Makes a new key active for signing. Tokens signed by the previous keys keep verifying
+     * until they fall out of the {@code jwt.retained-keys} window.
+     */
+    public void rotate(JwtKey newKey) {
+        if (newKey.algorithm() != signatureAlgorithm) {
+            throw new IllegalArgumentException("Expected a " + signatureAlgorithm + " key but got " + newKey.algorithm());
+        }
+        keyRing.updateAndGet(ring -> ring.rotate(newKey, retainedKeys));
+    }
+
+    public void rotate(String newKeyId, String newSecret) {
+        rotate(JwtKey.hmac(newKeyId, signatureAlgorithm, newSecret));
+    }
+
+    public SignatureAlgorithm getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    public JwtKeyRing getKeyRing() {
+        return keyRing.get();
+    }
+
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user && user.getId() != null) {
+            claims.put(CLAIM_USER_ID, user.getId());
+        }
+        claims.put(CLAIM_AUTHORITIES, userDetails.getAuthorities() == null ? List.of() : userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
         return createToken(claims, userDetails.getUsername());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        JwtKey signingKey = keyRing.get().active();
+        if (!signingKey.canSign()) {
+            throw new IllegalStateException("Key " + signingKey.id() + " has no private key; this node can only verify tokens");
+        }
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.id())
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration * 1000))
-                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .signWith(signingKey.signingKey(), signingKey.algorithm())
                 .compact();
     }
 
+    /**
+     * Parses the token and checks its signature and expiry exactly once.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     * @throws IllegalArgumentException if the token is null or empty
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = extractAllClaims(token);
+        return new VerifiedToken(claims.getSubject(), claims.getExpiration(), claims);
+    }
+
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final VerifiedToken verified = verify(token);
+        return (verified.subject().equals(userDetails.getUsername()) && !verified.isExpired());
     }
 
     public String extractUsername(String token) {
@@ -57,14 +166,33 @@ public class JwtTokenProvider {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * @param material the secret for HMAC algorithms, otherwise the public key
+     */
+    private JwtKey configuredKey(String id, String material, String privateKeyMaterial) {
+        return signatureAlgorithm.isHmac()
+                ? JwtKey.hmac(id, signatureAlgorithm, material)
+                : JwtKey.asymmetric(id, signatureAlgorithm, privateKeyMaterial, material);
+    }
+
+    private final class KeyRingResolver extends SigningKeyResolverAdapter {
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            // Tokens issued before kid headers existed were signed with the configured key.
+            String id = header.getKeyId() == null ? keyId : header.getKeyId();
+            JwtKey key = keyRing.get().find(id);
+            if (key == null) {
+                throw new SignatureException("Unknown signing key id: " + id);
+            }
+            // Never let the token header switch algorithm families, e.g. HMAC over a public key.
+            if (!key.algorithm().getFamilyName().equals(SignatureAlgorithm.forName(header.getAlgorithm()).getFamilyName())) {
+                throw new SignatureException("Unexpected algorithm " + header.getAlgorithm() + " for key id " + id);
+            }
+            return key.verificationKey();
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.btg.challenge.shared.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -31,9 +32,19 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed exports finish on an async dispatch and errors such as an
+                        // actuator 400 are rendered on an error dispatch, both after the request
+                        // itself was authorized; the JWT filter does not run again for them.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers(
-                                "/auth/**"
+                                "/auth/**",
+                                // Probes are unauthenticated; details are only shown when authorized.
+                                "/actuator/health",
+                                "/actuator/health/**"
                         ).permitAll()
+                        // Key rotation and statistics rebuilds are operator actions.
+                        .requestMatchers("/actuator/jwtkeys", "/actuator/jwtkeys/**",
+                                "/actuator/loanstats", "/actuator/loanstats/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -0,0 +1,21 @@
+package com.btg.challenge.shared.config;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Result of a single signature check on a JWT. Instances are only created by
+ * {@link JwtTokenProvider#verify(String)}, so holding one means the token was
+ * signed by us and had not expired at verification time.
+ */
+public record VerifiedToken(String subject, Date expiration, Claims claims) {
+
+    public String id() {
+        return claims.getId();
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
@@ -0,0 +1,33 @@
+package com.btg.challenge.shared.lock;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "job_lock")
+public class JobLock {
+    @Id
+    private String name;
+
+    private Instant lockedUntil;
+
+    private String lockedBy;
+
+    public JobLock() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+}
@@ -0,0 +1,33 @@
+package com.btg.challenge.shared.lock;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Lease updates run against the database clock, so nodes with skewed clocks still agree
+ * on when a lease expires.
+ */
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "insert into job_lock (name, locked_until) values (:name, timestamp with time zone 'epoch') "
+            + "on conflict (name) do nothing", nativeQuery = true)
+    int createIfMissing(@Param("name") String name);
+
+    @Modifying
+    @Transactional
+    @Query(value = "update job_lock set locked_until = now() + :leaseMillis * interval '1 millisecond', locked_by = :owner "
+            + "where name = :name and (locked_until < now() or locked_by = :owner)", nativeQuery = true)
+    int acquire(@Param("name") String name, @Param("owner") String owner, @Param("leaseMillis") long leaseMillis);
+
+    @Modifying
+    @Transactional
+    @Query(value = "update job_lock set locked_until = now() where name = :name and locked_by = :owner", nativeQuery = true)
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
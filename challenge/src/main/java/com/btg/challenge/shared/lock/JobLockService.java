@@ -0,0 +1,49 @@
+package com.btg.challenge.shared.lock;
+
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Cluster-wide mutual exclusion for scheduled jobs through a row per job in job_lock. A
+ * node holds a job while its lease is unexpired; a node that dies without releasing only
+ * blocks the job until the lease runs out, so the lease must outlast one run of the job.
+ */
+@Service
+public class JobLockService {
+
+    private final JobLockRepository jobLockRepository;
+    private final String owner;
+
+    public JobLockService(JobLockRepository jobLockRepository) {
+        this.jobLockRepository = jobLockRepository;
+        this.owner = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Takes or renews the lease on {@code name}; false when another node holds it.
+     */
+    public boolean tryAcquire(String name, Duration lease) {
+        jobLockRepository.createIfMissing(name);
+        return jobLockRepository.acquire(name, owner, lease.toMillis()) == 1;
+    }
+
+    public void release(String name) {
+        jobLockRepository.release(name, owner);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.btg.challenge.shared.pagination;
+
+import com.btg.challenge.shared.exception.BadRequestException;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Opaque continuation tokens for keyset pagination over the primary key. A token encodes
+ * the last id a client has seen; the next slice is {@code id > lastId order by id}, which
+ * the primary key index answers with a range scan however deep the client has walked.
+ * An empty cursor starts at the beginning.
+ */
+public final class Cursors {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 1000;
+    private static final String PREFIX = "id:";
+
+    private Cursors() {
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * One row more than the slice size is fetched to learn whether another slice follows.
+     */
+    public static Limit limit(int size) {
+        return Limit.of(clamp(size) + 1);
+    }
+
+    public static <T> CursorPage<T> page(List<T> rows, int size, ToLongFunction<T> id) {
+        int clamped = clamp(size);
+        if (rows.size() <= clamped) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, clamped);
+        return new CursorPage<>(List.copyOf(content), encode(id.applyAsLong(content.get(clamped - 1))));
+    }
+
+    private static int clamp(int size) {
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+}
@@ -0,0 +1,64 @@
+package com.btg.challenge.shared.service;
+
+import com.btg.challenge.shared.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks revoked token ids (jti) until the token would have expired anyway. A Bloom filter
+ * answers the common "not revoked" case without touching the exact map; only filter hits
+ * consult the map. The filter is rebuilt from the map when expired entries are purged.
+ * State is per node, like the rest of the stateless authentication path.
+ */
+@Service
+public class TokenRevocationService {
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private volatile BloomFilter filter;
+
+    public TokenRevocationService(@Value("${jwt.revocation.expected-revocations:100000}") long expectedRevocations,
+                                  @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    public void revoke(String tokenId, Date expiration) {
+        if (tokenId == null || expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        revoked.put(tokenId, expiration.getTime());
+        filter.put(tokenId);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2L), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        // A revoke() that wrote the old filter during the rebuild is already in the map; copy it over.
+        revoked.keySet().forEach(rebuilt::put);
+    }
+}
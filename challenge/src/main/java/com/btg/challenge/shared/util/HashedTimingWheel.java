@@ -0,0 +1,113 @@
+package com.btg.challenge.shared.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: timeouts are hashed by deadline tick into a ring of buckets, so
+ * scheduling and cancelling are O(1) and each {@link #advance} only visits the buckets of
+ * the ticks that elapsed. Deadlines further away than one revolution share buckets with
+ * nearer ones and are skipped until their own revolution comes around. Timeouts are keyed
+ * by a {@code long} id; scheduling an id again replaces its timeout. Not thread-safe.
+ */
+public final class HashedTimingWheel<T> {
+
+    private final long tickMillis;
+    private final Node<T>[] buckets;
+    private final int mask;
+    private final Map<Long, Node<T>> byKey = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.buckets = (Node<T>[]) new Node[size];
+        this.mask = size - 1;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public void schedule(long key, long deadlineMillis, T value) {
+        cancel(key);
+        // A deadline already in the past goes into the current bucket and fires on the next advance.
+        long tick = Math.max(deadlineMillis / tickMillis, currentTick);
+        Node<T> node = new Node<>(key, deadlineMillis, value);
+        int bucket = (int) (tick & mask);
+        node.next = buckets[bucket];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        buckets[bucket] = node;
+        node.bucket = bucket;
+        byKey.put(key, node);
+    }
+
+    public boolean cancel(long key) {
+        Node<T> node = byKey.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    public int size() {
+        return byKey.size();
+    }
+
+    /**
+     * Passes every timeout with a deadline at or before {@code nowMillis} to {@code expired}
+     * and removes it. Visits at most one revolution of buckets however long ago the last
+     * call was.
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long nowTick = nowMillis / tickMillis;
+        long from = Math.max(currentTick, nowTick - mask);
+        for (long tick = from; tick <= nowTick; tick++) {
+            Node<T> node = buckets[(int) (tick & mask)];
+            while (node != null) {
+                Node<T> next = node.next;
+                if (node.deadline <= nowMillis) {
+                    byKey.remove(node.key);
+                    unlink(node);
+                    expired.accept(node.value);
+                }
+                node = next;
+            }
+        }
+        // The current tick is visited again next time: timeouts scheduled into it later still fire.
+        currentTick = Math.max(currentTick, nowTick);
+    }
+
+    private void unlink(Node<T> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            buckets[node.bucket] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static final class Node<T> {
+        private final long key;
+        private final long deadline;
+        private final T value;
+        private int bucket;
+        private Node<T> prev;
+        private Node<T> next;
+
+        private Node(long key, long deadline, T value) {
+            this.key = key;
+            this.deadline = deadline;
+            this.value = value;
+        }
+    }
+}
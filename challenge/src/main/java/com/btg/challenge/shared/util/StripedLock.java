@@ -0,0 +1,58 @@
+package com.btg.challenge.shared.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed pool of locks addressed by numeric key, so per-entity mutual exclusion needs no
+ * per-entity state. Unrelated keys may share a stripe; they then only wait for each other
+ * briefly, never deadlock, because stripes are always acquired in ascending order.
+ */
+public final class StripedLock {
+
+    private final ReentrantLock[] stripes;
+
+    public StripedLock(int stripes) {
+        this.stripes = new ReentrantLock[Math.max(stripes, 1)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs the action while holding the stripes of all keys. If they cannot all be acquired
+     * within the timeout, none is held and the exception from {@code onTimeout} is thrown.
+     */
+    public <T> T withLocks(Collection<Long> keys, long timeoutMillis, Supplier<T> action,
+                           Supplier<? extends RuntimeException> onTimeout) {
+        int[] indexes = keys.stream().mapToInt(this::stripe).distinct().sorted().toArray();
+        List<ReentrantLock> held = new ArrayList<>(indexes.length);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    throw onTimeout.get();
+                }
+                held.add(lock);
+            }
+            return action.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw onTimeout.get();
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    private int stripe(Long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) ((h ^ (h >>> 32)) & 0x7FFFFFFF) % stripes.length;
+    }
+}
@@ -3,8 +3,11 @@ package com.btg.challenge.user;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 
 
@@ -12,9 +15,11 @@ import org.springframework.http.HttpStatus;
 @RequestMapping("/auth")
 public class AuthController {
     private final AuthService authService;
+    private final LoginAttemptLimiter loginAttemptLimiter;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, LoginAttemptLimiter loginAttemptLimiter) {
         this.authService = authService;
+        this.loginAttemptLimiter = loginAttemptLimiter;
     }
 
     @PostMapping("/register")
@@ -24,8 +29,17 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDto> login(@RequestBody AuthRequestDto request) {
+    public ResponseEntity<AuthResponseDto> login(@RequestBody AuthRequestDto request, HttpServletRequest httpRequest) {
+        loginAttemptLimiter.acquire(request.getUsername(), httpRequest.getRemoteAddr());
         String token = authService.login(request);
         return ResponseEntity.ok(new AuthResponseDto(token));
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            authService.logout(authorization.substring(7));
+        }
+        return ResponseEntity.noContent().build();
+    }
 }
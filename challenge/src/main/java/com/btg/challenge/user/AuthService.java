@@ -1,9 +1,20 @@
 package com.btg.challenge.user;
 
+import com.btg.challenge.shared.config.CacheConfig;
+import com.btg.challenge.shared.config.JwtAuthenticationCache;
 import com.btg.challenge.shared.config.JwtTokenProvider;
+import com.btg.challenge.shared.config.VerifiedToken;
+import com.btg.challenge.shared.exception.ConflictException;
+import com.btg.challenge.shared.service.MessageService;
+import com.btg.challenge.shared.service.PasswordHashingExecutor;
+import com.btg.challenge.shared.service.TokenRevocationService;
+import io.jsonwebtoken.JwtException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -13,27 +24,86 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final CacheManager cacheManager;
+    private final TokenRevocationService tokenRevocationService;
+    private final JwtAuthenticationCache authenticationCache;
+    private final UsernameFilter usernameFilter;
+    private final MessageService messageService;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtTokenProvider jwtTokenProvider, AuthenticationManager authenticationManager) {
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtTokenProvider jwtTokenProvider, AuthenticationManager authenticationManager, PasswordHashingExecutor passwordHashingExecutor, CacheManager cacheManager, TokenRevocationService tokenRevocationService, JwtAuthenticationCache authenticationCache, UsernameFilter usernameFilter, MessageService messageService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
         this.authenticationManager = authenticationManager;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.cacheManager = cacheManager;
+        this.tokenRevocationService = tokenRevocationService;
+        this.authenticationCache = authenticationCache;
+        this.usernameFilter = usernameFilter;
+        this.messageService = messageService;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#request.username", condition = "#request.username != null")
     public void register(AuthRequestDto request) {
+        // Checked before hashing so duplicates don't cost a BCrypt round; the filter skips the query for new names.
+        if (usernameFilter.mightExist(request.getUsername()) && userRepository.existsByUsername(request.getUsername())) {
+            throw usernameTaken(request.getUsername());
+        }
         User user = new User();
         user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        userRepository.save(user);
+        user.setPassword(passwordHashingExecutor.execute(() -> passwordEncoder.encode(request.getPassword())));
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent registration of the same name; the unique index decides.
+            throw usernameTaken(request.getUsername());
+        }
+        usernameFilter.add(user.getUsername());
+    }
+
+    private ConflictException usernameTaken(String username) {
+        return new ConflictException(messageService.getMessage("user.already.exists", username));
     }
 
     public String login(AuthRequestDto request) {
-        authenticationManager.authenticate(
+        // The password comparison inside the AuthenticationManager is the expensive part.
+        passwordHashingExecutor.execute(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
-        final UserDetails userDetails = userRepository.findByUsername(request.getUsername())
+        ));
+        final User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow();
-        return jwtTokenProvider.generateToken(userDetails);
+        upgradePasswordEncodingIfOutdated(user, request.getPassword());
+        return jwtTokenProvider.generateToken(user);
+    }
+
+    /**
+     * Revokes the token until its expiry. Invalid or already expired tokens need no revocation.
+     */
+    public void logout(String token) {
+        final VerifiedToken verified;
+        try {
+            verified = jwtTokenProvider.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+        tokenRevocationService.revoke(verified.id(), verified.expiration());
+        authenticationCache.invalidate(token);
+    }
+
+    /**
+     * The raw password is only available right after a successful login, so that is
+     * where hashes with an old algorithm or a lower strength get re-encoded.
+     */
+    private void upgradePasswordEncodingIfOutdated(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        user.setPassword(passwordHashingExecutor.execute(() -> passwordEncoder.encode(rawPassword)));
+        userRepository.save(user);
+        Cache usersCache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        if (usersCache != null) {
+            usersCache.evict(user.getUsername());
+        }
     }
 }
@@ -0,0 +1,204 @@
+package com.btg.challenge.user;
+
+import com.btg.challenge.shared.exception.TooManyRequestsException;
+import com.btg.challenge.shared.service.MessageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-window limit on login attempts per username and per client IP, checked before
+ * any password hashing. Keys are hashed into fixed arrays of lock-free counters (a
+ * two-row count-min sketch), so memory stays constant however many distinct usernames
+ * or addresses an attack uses; a collision can only over-count, never let extra
+ * attempts through. An attempt is counted before the limit is checked, so concurrent
+ * attempts on one key cannot all pass a check that each of them read as under the limit.
+ */
+@Service
+public class LoginAttemptLimiter {
+
+    private final WindowCounters usernameCounters;
+    private final WindowCounters ipCounters;
+    private final int maxPerUsername;
+    private final int maxPerIp;
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final MessageService messageService;
+    private final Counter allowed;
+    private final Counter rejectedByUsername;
+    private final Counter rejectedByIp;
+
+    @Autowired
+    public LoginAttemptLimiter(MessageService messageService,
+                               MeterRegistry meterRegistry,
+                               @Value("${security.login-limit.window-seconds:60}") long windowSeconds,
+                               @Value("${security.login-limit.max-per-username:10}") int maxPerUsername,
+                               @Value("${security.login-limit.max-per-ip:100}") int maxPerIp,
+                               @Value("${security.login-limit.slots:65536}") int slots) {
+        this(messageService, meterRegistry, windowSeconds, maxPerUsername, maxPerIp, slots, System::currentTimeMillis);
+    }
+
+    LoginAttemptLimiter(MessageService messageService, MeterRegistry meterRegistry, long windowSeconds,
+                        int maxPerUsername, int maxPerIp, int slots, LongSupplier clock) {
+        this.messageService = messageService;
+        this.windowMillis = windowSeconds * 1000;
+        this.maxPerUsername = maxPerUsername;
+        this.maxPerIp = maxPerIp;
+        this.clock = clock;
+        this.usernameCounters = new WindowCounters(slots);
+        this.ipCounters = new WindowCounters(slots);
+        this.allowed = attempts(meterRegistry, "allowed");
+        this.rejectedByUsername = attempts(meterRegistry, "rejected_username");
+        this.rejectedByIp = attempts(meterRegistry, "rejected_ip");
+    }
+
+    /**
+     * Records a login attempt, or rejects it when either key is over its limit. A rejected
+     * attempt is taken back out of the counts, so it does not use up the budget of the
+     * other key.
+     *
+     * @throws TooManyRequestsException when the username or the client IP exceeded its limit
+     */
+    public void acquire(String username, String clientIp) {
+        long now = clock.getAsLong();
+        long window = now / windowMillis;
+        double elapsed = (double) (now % windowMillis) / windowMillis;
+
+        if (clientIp != null) {
+            ipCounters.increment(clientIp, window);
+        }
+        if (username != null) {
+            usernameCounters.increment(username, window);
+        }
+        // The estimates include this attempt and every concurrent one counted before it.
+        boolean overIp = clientIp != null && ipCounters.estimate(clientIp, window, elapsed) > maxPerIp;
+        boolean overUsername = !overIp && username != null
+                && usernameCounters.estimate(username, window, elapsed) > maxPerUsername;
+        if (overIp || overUsername) {
+            if (clientIp != null) {
+                ipCounters.decrement(clientIp, window);
+            }
+            if (username != null) {
+                usernameCounters.decrement(username, window);
+            }
+            (overIp ? rejectedByIp : rejectedByUsername).increment();
+            throw rejected(now);
+        }
+        allowed.increment();
+    }
+
+    private TooManyRequestsException rejected(long now) {
+        long retryAfterSeconds = Math.max(1, (windowMillis - now % windowMillis + 999) / 1000);
+        return new TooManyRequestsException(messageService.getMessage("login.too.many.attempts"), retryAfterSeconds);
+    }
+
+    private static Counter attempts(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.login.attempts")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Two rows of slots, each slot packing {@code window << 32 | count} into one long so a
+     * window roll-over and an increment are a single CAS. The estimate weights the previous
+     * window by how much of it still overlaps the sliding window.
+     */
+    static final class WindowCounters {
+        private static final int ROWS = 2;
+        private final AtomicLongArray current;
+        private final AtomicLongArray previous;
+        private final int mask;
+
+        WindowCounters(int slots) {
+            int size = Integer.highestOneBit(Math.max(slots, 2) - 1) << 1;
+            this.current = new AtomicLongArray(size * ROWS);
+            this.previous = new AtomicLongArray(size * ROWS);
+            this.mask = size - 1;
+        }
+
+        double estimate(String key, long window, double elapsedFraction) {
+            double min = Double.MAX_VALUE;
+            for (int row = 0; row < ROWS; row++) {
+                int slot = slot(key, row);
+                long cur = current.get(slot);
+                long prev = previous.get(slot);
+                double count = countIn(cur, window);
+                if (windowOf(cur) == (window & 0xFFFFFFFFL) - 1) {
+                    count += countOf(cur) * (1 - elapsedFraction);
+                } else if (windowOf(cur) == (window & 0xFFFFFFFFL)) {
+                    count += countIn(prev, window - 1) * (1 - elapsedFraction);
+                }
+                min = Math.min(min, count);
+            }
+            return min;
+        }
+
+        void increment(String key, long window) {
+            long packedWindow = window & 0xFFFFFFFFL;
+            for (int row = 0; row < ROWS; row++) {
+                int slot = slot(key, row);
+                while (true) {
+                    long cur = current.get(slot);
+                    if (windowOf(cur) == packedWindow) {
+                        if (current.compareAndSet(slot, cur, cur + 1)) {
+                            break;
+                        }
+                    } else if (current.compareAndSet(slot, cur, packedWindow << 32 | 1)) {
+                        previous.set(slot, cur);
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Takes back an increment of {@code window}; a no-op once the slot has moved on
+         * to a later window.
+         */
+        void decrement(String key, long window) {
+            long packedWindow = window & 0xFFFFFFFFL;
+            for (int row = 0; row < ROWS; row++) {
+                int slot = slot(key, row);
+                while (true) {
+                    long cur = current.get(slot);
+                    if (windowOf(cur) != packedWindow || countOf(cur) == 0 || current.compareAndSet(slot, cur, cur - 1)) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        private int slot(String key, int row) {
+            // Independent hashes per row, so keys built to collide on String.hashCode still separate.
+            int h = row == 0 ? key.hashCode() * 0x9E3779B9 : fnv1a32(key);
+            h ^= h >>> 16;
+            return row * (mask + 1) + (h & mask);
+        }
+
+        private static int fnv1a32(String key) {
+            int hash = 0x811C9DC5;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x01000193;
+            }
+            return hash;
+        }
+
+        private static long windowOf(long packed) {
+            return packed >>> 32;
+        }
+
+        private static long countOf(long packed) {
+            return packed & 0xFFFFFFFFL;
+        }
+
+        private static long countIn(long packed, long window) {
+            return windowOf(packed) == (window & 0xFFFFFFFFL) ? countOf(packed) : 0;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.btg.challenge.user;
 
+import com.btg.challenge.shared.config.CacheConfig;
 import com.btg.challenge.shared.service.MessageService;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -17,7 +19,13 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         this.messageService = messageService;
     }
 
+    /**
+     * Always asks the database: the {@link UsernameFilter} is per node and misses users
+     * registered on other nodes until its next rebuild, so its negative answers cannot
+     * reject a login.
+     */
     @Override
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#username")
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException(messageService.getMessage("user.not.found", username)));
@@ -0,0 +1,69 @@
+package com.btg.challenge.user;
+
+import com.btg.challenge.shared.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over all registered usernames. A negative answer means the username was
+ * not registered through this node or present at the last rebuild, so fresh registrations
+ * skip the existence query; a positive answer still has to be confirmed by a query.
+ * <p>
+ * The filter is loaded from the database right after startup and rebuilt periodically,
+ * which also picks up users registered on other nodes. Until the first load finishes
+ * every username is reported as possibly existing. A stale negative answer is only safe
+ * where the database still decides, as with the unique index on registration; it must
+ * not be used to reject logins.
+ */
+@Service
+public class UsernameFilter {
+
+    private final UserRepository userRepository;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private final Set<String> addedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile BloomFilter filter;
+
+    public UsernameFilter(UserRepository userRepository,
+                          @Value("${security.username-filter.expected-users:1000000}") long expectedUsers,
+                          @Value("${security.username-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public boolean mightExist(String username) {
+        BloomFilter current = filter;
+        return username != null && (current == null || current.mightContain(username));
+    }
+
+    public void add(String username) {
+        if (username == null) {
+            return;
+        }
+        addedDuringRebuild.add(username);
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(username);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Scheduled(fixedDelayString = "${security.username-filter.refresh-interval:300000}")
+    public void rebuild() {
+        addedDuringRebuild.clear();
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedUsers, userRepository.count() * 2), falsePositiveRate);
+        try (Stream<String> usernames = userRepository.streamAllUsernames()) {
+            usernames.forEach(rebuilt::put);
+        }
+        filter = rebuilt;
+        // Registrations committed after the query started are missing from the snapshot.
+        addedDuringRebuild.forEach(rebuilt::put);
+    }
+}
@@ -0,0 +1,4 @@
+-- Operators are granted ROLE_ADMIN, required for the jwtkeys and loanstats actuator
+-- endpoints, with: UPDATE users SET admin = TRUE WHERE username = '...';
+-- The grant applies to tokens issued after the user's cache entry expires.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS admin BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,26 @@
+-- Schema as previously generated by Hibernate ddl-auto. Existing databases are
+-- baselined at this version, so this only runs against an empty database.
+CREATE TABLE IF NOT EXISTS game (
+    id    BIGINT NOT NULL PRIMARY KEY,
+    name  VARCHAR(255),
+    genre VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS friend (
+    id   BIGINT NOT NULL PRIMARY KEY,
+    name VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS loan (
+    id          BIGINT NOT NULL PRIMARY KEY,
+    friend_id   BIGINT NOT NULL REFERENCES friend (id),
+    game_id     BIGINT NOT NULL REFERENCES game (id),
+    loan_date   DATE   NOT NULL,
+    return_date DATE
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT       NOT NULL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255)
+);
@@ -0,0 +1,17 @@
+-- Ids move from identity columns to pooled sequences (allocationSize = 50), which lets
+-- Hibernate batch inserts. Each sequence starts past the current maximum id so the
+-- first pooled block cannot overlap existing rows.
+ALTER TABLE game ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE friend ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE loan ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS game_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS friend_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS loan_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('game_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM game));
+SELECT setval('friend_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM friend));
+SELECT setval('loan_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM loan));
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users));
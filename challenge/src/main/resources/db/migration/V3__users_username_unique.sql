@@ -0,0 +1,2 @@
+-- Databases created before usernames were unique may lack the constraint ddl-auto added later.
+CREATE UNIQUE INDEX IF NOT EXISTS users_username_key ON users (username);
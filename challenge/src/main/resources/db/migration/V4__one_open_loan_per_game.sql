@@ -0,0 +1,3 @@
+-- At most one open (not yet returned) loan per game. Fails if the data already holds
+-- duplicate open loans; those have to be resolved by hand before migrating.
+CREATE UNIQUE INDEX IF NOT EXISTS loan_open_game_key ON loan (game_id) WHERE return_date IS NULL;
@@ -0,0 +1,12 @@
+-- Returned loans older than the retention period are moved here by LoanArchiveService,
+-- keeping the loan table down to open and recently returned loans. Ids are kept.
+CREATE TABLE IF NOT EXISTS loan_archive (
+    id          BIGINT NOT NULL PRIMARY KEY,
+    friend_id   BIGINT NOT NULL REFERENCES friend (id),
+    game_id     BIGINT NOT NULL REFERENCES game (id),
+    loan_date   DATE   NOT NULL,
+    return_date DATE   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS loan_archive_friend_idx ON loan_archive (friend_id);
+CREATE INDEX IF NOT EXISTS loan_archive_game_idx ON loan_archive (game_id);
@@ -0,0 +1,3 @@
+-- Optional date by which a loan should be returned; NULL means no due date.
+ALTER TABLE loan ADD COLUMN IF NOT EXISTS due_date DATE;
+ALTER TABLE loan_archive ADD COLUMN IF NOT EXISTS due_date DATE;
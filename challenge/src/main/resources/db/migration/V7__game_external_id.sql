@@ -0,0 +1,3 @@
+-- Id of the game in the external catalog API; NULL for games created through the API.
+ALTER TABLE game ADD COLUMN IF NOT EXISTS external_id BIGINT;
+CREATE UNIQUE INDEX IF NOT EXISTS game_external_id_key ON game (external_id);
@@ -0,0 +1,9 @@
+-- Hash of the imported fields of an external game, to skip unchanged games on sync.
+ALTER TABLE game ADD COLUMN IF NOT EXISTS content_hash BIGINT;
+
+-- Lease-based locks for jobs that must run on one node at a time.
+CREATE TABLE IF NOT EXISTS job_lock (
+    name         VARCHAR(64)              NOT NULL PRIMARY KEY,
+    locked_until TIMESTAMP WITH TIME ZONE NOT NULL,
+    locked_by    VARCHAR(255)
+);
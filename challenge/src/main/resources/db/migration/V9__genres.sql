@@ -0,0 +1,32 @@
+-- Genres get their own table, linked to games through game_genre. game.genre stays as
+-- the label returned by the API; filtering goes through game_genre.
+CREATE SEQUENCE IF NOT EXISTS genre_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS genre (
+    id   BIGINT       NOT NULL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS game_genre (
+    game_id  BIGINT NOT NULL REFERENCES game (id) ON DELETE CASCADE,
+    genre_id BIGINT NOT NULL REFERENCES genre (id),
+    PRIMARY KEY (game_id, genre_id)
+);
+
+CREATE INDEX IF NOT EXISTS game_genre_genre_idx ON game_genre (genre_id);
+
+INSERT INTO genre (id, name)
+SELECT ROW_NUMBER() OVER (ORDER BY name), name
+FROM (SELECT DISTINCT TRIM(label) AS name
+      FROM game CROSS JOIN LATERAL REGEXP_SPLIT_TO_TABLE(game.genre, ',') AS label) names
+WHERE name <> ''
+ON CONFLICT (name) DO NOTHING;
+
+SELECT setval('genre_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM genre));
+
+INSERT INTO game_genre (game_id, genre_id)
+SELECT DISTINCT game.id, genre.id
+FROM game
+CROSS JOIN LATERAL REGEXP_SPLIT_TO_TABLE(game.genre, ',') AS label
+JOIN genre ON genre.name = TRIM(label)
+ON CONFLICT DO NOTHING;
@@ -11,6 +11,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -21,8 +23,11 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.btg.challenge.shared.config.JwtTokenProvider;
+import com.btg.challenge.shared.service.TokenRevocationService;
+import com.btg.challenge.shared.config.JwtAuthenticationCache;
 import com.btg.challenge.shared.exception.GlobalExceptionHandler;
 import com.btg.challenge.shared.exception.ResourceNotFoundException;
+import com.btg.challenge.shared.pagination.CursorPage;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @WebMvcTest(FriendController.class)
@@ -40,6 +45,12 @@ public class FriendControllerTest {
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
 
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private JwtAuthenticationCache jwtAuthenticationCache;
+
     @Test
     @WithMockUser(username = "user")
     public void whenCreateFriendWithValidDataShouldReturnCreatedResponse() throws Exception {
@@ -120,4 +131,13 @@ public class FriendControllerTest {
                         .with(csrf()))
                 .andExpect(status().isNoContent());
     }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenGetAllFriendsWithEmptyCursorShouldReturnFirstCursorPage() throws Exception {
+        when(friendService.findAfter("", 20)).thenReturn(new CursorPage<>(List.of(new FriendDto()), null));
+
+        mockMvc.perform(get("/friends").param("cursor", ""))
+                .andExpect(status().isOk());
+    }
 }
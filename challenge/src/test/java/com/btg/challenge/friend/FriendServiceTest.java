@@ -1,6 +1,8 @@
 package com.btg.challenge.friend;
 
 import com.btg.challenge.shared.exception.ResourceNotFoundException;
+import com.btg.challenge.shared.pagination.CursorPage;
+import com.btg.challenge.shared.pagination.Cursors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -8,15 +10,19 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 import org.mapstruct.factory.Mappers;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class FriendServiceTest {
@@ -116,4 +122,23 @@ public class FriendServiceTest {
         friendService.deleteById(1L);
         verify(friendRepository, times(1)).deleteById(1L);
     }
+
+    @Test
+    public void whenFindAfterCursorShouldSeekByIdAndReturnNextCursor() {
+        Friend first = new Friend();
+        first.setId(11L);
+        Friend second = new Friend();
+        second.setId(12L);
+        Friend extra = new Friend();
+        extra.setId(13L);
+
+        when(friendRepository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class))).thenReturn(List.of(first, second, extra));
+
+        CursorPage<FriendDto> result = friendService.findAfter(Cursors.encode(10L), 2);
+
+        assertEquals(2, result.content().size());
+        assertEquals(12L, Cursors.decode(result.nextCursor()));
+        verify(friendRepository, times(1)).findByIdGreaterThanOrderByIdAsc(10L, Limit.of(3));
+        verify(friendRepository, never()).findAll(any(Pageable.class));
+    }
 }
@@ -0,0 +1,133 @@
+package com.btg.challenge.game;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CatalogImporterTest {
+    private static final String CATALOG = """
+            [{"id": 1, "name": "God of War", "genre": ["Action"]},
+             {"id": 3, "name": "Uncharted", "genre": ["Action", "Adventure"]}]""";
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private GenreService genreService;
+
+    @Mock
+    private GenreIndex genreIndex;
+
+    @TempDir
+    private Path dir;
+
+    private CatalogImporter catalogImporter;
+    private Path payload;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        catalogImporter = new CatalogImporter(gameRepository, genreService, genreIndex, new ObjectMapper());
+        payload = Files.writeString(dir.resolve("catalog.json"), CATALOG);
+    }
+
+    @Test
+    public void whenHashesAreUnchangedShouldNotLoadOrWriteGames() throws IOException {
+        // Given
+        when(gameRepository.findHashesByExternalIdIn(any())).thenReturn(List.of(
+                new Object[]{1L, 10L, CatalogImporter.contentHash(new Game(null, "God of War", "Action"))},
+                new Object[]{3L, 11L, CatalogImporter.contentHash(new Game(null, "Uncharted", "Action, Adventure"))}));
+
+        // When
+        CatalogImporter.Changes changes = catalogImporter.apply(payload, false);
+
+        // Then
+        assertEquals(0, changes.total());
+        verify(gameRepository).findAllById(List.of());
+        verify(gameRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    public void whenGamesLeftTheCatalogShouldDeleteThemUnlessLent() throws IOException {
+        // Given
+        when(gameRepository.findImportedAfter(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(new Object[]{10L, 1L}, new Object[]{20L, 2L}, new Object[]{21L, 4L}));
+        when(gameRepository.findIdsWithLoans(List.of(20L, 21L))).thenReturn(List.of(21L));
+
+        // When
+        CatalogImporter.Changes changes = catalogImporter.apply(payload, true);
+
+        // Then
+        verify(gameRepository).deleteAllByIdInBatch(List.of(20L));
+        verify(genreIndex).removeAll(List.of(20L));
+        assertEquals(2, changes.getInserted());
+        assertEquals(1, changes.getDeleted());
+        assertEquals(1, changes.getRetained());
+    }
+
+    @Test
+    public void whenGameIsLentDuringDeletionShouldKeepIt() throws IOException {
+        // Given
+        when(gameRepository.findImportedAfter(eq(0L), any(Limit.class))).thenReturn(List.<Object[]>of(new Object[]{20L, 2L}));
+        doThrow(new DataIntegrityViolationException("fk_loan_game")).when(gameRepository).deleteAllByIdInBatch(List.of(20L));
+
+        // When
+        CatalogImporter.Changes changes = catalogImporter.apply(payload, true);
+
+        // Then
+        assertEquals(0, changes.getDeleted());
+        assertEquals(1, changes.getRetained());
+    }
+
+    @Test
+    public void whenGamesAreSavedShouldLinkTheirGenresAndIndexThem() throws IOException {
+        // Given
+        Genre action = new Genre(1L, "Action");
+        Genre adventure = new Genre(2L, "Adventure");
+        when(genreService.resolve(Set.of("Action", "Adventure"))).thenReturn(Map.of("Action", action, "Adventure", adventure));
+        when(gameRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Game> games = invocation.getArgument(0);
+            for (int i = 0; i < games.size(); i++) {
+                games.get(i).setId(10L + i);
+            }
+            return games;
+        });
+
+        // When
+        catalogImporter.apply(payload, false);
+
+        // Then
+        verify(gameRepository).saveAll(argThat((List<Game> games) -> games.get(0).getGenres().equals(Set.of(action))
+                && games.get(1).getGenres().equals(Set.of(action, adventure))));
+        verify(genreIndex).put(10L, List.of("Action"));
+        verify(genreIndex).put(11L, List.of("Action", "Adventure"));
+    }
+
+    @Test
+    public void whenNotRemovingMissingGamesShouldNotScanForThem() throws IOException {
+        // When
+        catalogImporter.apply(payload, false);
+
+        // Then
+        verify(gameRepository, never()).findImportedAfter(any(), any());
+        verify(gameRepository, never()).deleteAllByIdInBatch(any());
+    }
+}
@@ -4,6 +4,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -12,6 +13,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -24,6 +27,8 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.btg.challenge.shared.config.JwtTokenProvider;
+import com.btg.challenge.shared.service.TokenRevocationService;
+import com.btg.challenge.shared.config.JwtAuthenticationCache;
 import com.btg.challenge.shared.exception.GlobalExceptionHandler;
 import com.btg.challenge.shared.exception.ResourceNotFoundException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -47,6 +52,16 @@ public class GameControllerTest {
             return mock(JwtTokenProvider.class);
         }
 
+        @Bean
+        public TokenRevocationService tokenRevocationService() {
+            return mock(TokenRevocationService.class);
+        }
+
+        @Bean
+        public JwtAuthenticationCache jwtAuthenticationCache() {
+            return mock(JwtAuthenticationCache.class);
+        }
+
         @Bean
         public GameService gameService() {
             return mock(GameService.class);
@@ -96,6 +111,31 @@ public class GameControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(username = "user")
+    public void whenGetAllGamesWithCursorShouldReturnOkResponse() throws Exception {
+        mockMvc.perform(get("/games").param("cursor", "").param("size", "50"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenGetGamesByGenreShouldReturnOkResponse() throws Exception {
+        mockMvc.perform(get("/games").param("genre", "Action|RPG").param("genre", "Shooter"))
+                .andExpect(status().isOk());
+
+        verify(gameService).findByGenres(eq(List.of("Action|RPG", "Shooter")), any());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenGetGamesByGenreWithCursorShouldReturnOkResponse() throws Exception {
+        mockMvc.perform(get("/games").param("genre", "Action").param("cursor", ""))
+                .andExpect(status().isOk());
+
+        verify(gameService).findByGenresAfter(List.of("Action"), "", 20);
+    }
+
     @Test
     @WithMockUser(username = "user")
     public void whenUpdateGameWithValidDataShouldReturnOkResponse() throws Exception {
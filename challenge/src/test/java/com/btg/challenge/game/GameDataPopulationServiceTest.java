@@ -0,0 +1,293 @@
+package com.btg.challenge.game;
+
+import com.btg.challenge.shared.lock.JobLockService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the import against a stub game API on a local port.
+ */
+public class GameDataPopulationServiceTest {
+    private static final String CATALOG = """
+            [{"id": 1, "name": "God of War", "genre": ["Action"]},
+             {"id": 2, "name": "No genre", "genre": []},
+             {"id": 3, "name": "Uncharted", "genre": ["Action", "Adventure"]}]""";
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private JobLockService jobLockService;
+
+    @Mock
+    private GenreService genreService;
+
+    @Mock
+    private GenreIndex genreIndex;
+
+    @TempDir
+    private Path snapshotDir;
+
+    private HttpServer api;
+    private volatile String catalog = CATALOG;
+    private volatile String etag = "\"v1\"";
+    private volatile int apiStatus = 200;
+    private final List<String> ifNoneMatch = new ArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CatalogImporter catalogImporter;
+    private GameDataPopulationService populationService;
+    private CatalogHealthIndicator healthIndicator;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        when(jobLockService.tryAcquire(eq(GameDataPopulationService.LOCK_NAME), any())).thenReturn(true);
+        catalogImporter = new CatalogImporter(gameRepository, genreService, genreIndex, new ObjectMapper());
+        api = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        api.createContext("/games", exchange -> {
+            String validator = exchange.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatch.add(validator);
+            if (apiStatus != 200) {
+                exchange.sendResponseHeaders(apiStatus, -1);
+            } else if (etag.equals(validator)) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                byte[] body = catalog.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        api.start();
+        populationService = newService();
+        healthIndicator = new CatalogHealthIndicator(populationService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        api.stop(0);
+    }
+
+    @Test
+    public void whenImportNotFinishedShouldReportCatalogOutOfService() {
+        // When & Then
+        assertEquals(GameDataPopulationService.Status.PENDING, populationService.getStatus());
+        assertEquals(Status.OUT_OF_SERVICE, healthIndicator.health().getStatus());
+    }
+
+    @Test
+    public void whenImportSucceedsShouldSaveGamesKeepSnapshotAndReportCatalogUp() {
+        // When
+        populationService.populateGames();
+
+        // Then
+        verify(gameRepository).saveAll(argThat((List<Game> games) -> games.size() == 2
+                && games.get(1).getExternalId() == 3L && games.get(1).getGenre().equals("Action, Adventure")));
+        assertEquals(GameDataPopulationService.Status.COMPLETED, populationService.getStatus());
+        assertEquals(2, populationService.getImportedGames());
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+        assertTrue(Files.exists(snapshotDir.resolve("catalog.json")));
+    }
+
+    @Test
+    public void whenCatalogNotModifiedShouldSendValidatorAndWriteNothing() {
+        // Given
+        populationService.populateGames();
+        clearInvocations(gameRepository);
+
+        // When
+        populationService.populateGames();
+
+        // Then
+        assertEquals("\"v1\"", ifNoneMatch.get(1));
+        verify(gameRepository, never()).saveAll(anyList());
+        assertEquals(0, populationService.getImportedGames());
+    }
+
+    @Test
+    public void whenRestartedWithSnapshotShouldApplyItEvenIfApiIsDown() {
+        // Given
+        populationService.populateGames();
+        apiStatus = 503;
+        GameDataPopulationService restarted = newService();
+        clearInvocations(gameRepository);
+
+        // When
+        restarted.populateGames();
+
+        // Then
+        verify(gameRepository).saveAll(argThat((List<Game> games) -> games.size() == 2));
+        assertEquals(GameDataPopulationService.Status.COMPLETED, restarted.getStatus());
+        assertNotNull(restarted.getLastError());
+        assertEquals(Status.UP, new CatalogHealthIndicator(restarted).health().getStatus());
+    }
+
+    @Test
+    public void whenCatalogChangesShouldOnlyWriteChangedGames() {
+        // Given
+        Game godOfWar = new Game(10L, "God of War", "Action");
+        godOfWar.setExternalId(1L);
+        Game uncharted = new Game(11L, "Uncharted", "Action");
+        uncharted.setExternalId(3L);
+        when(gameRepository.findHashesByExternalIdIn(any())).thenReturn(List.of(
+                new Object[]{1L, 10L, CatalogImporter.contentHash(godOfWar)},
+                new Object[]{3L, 11L, CatalogImporter.contentHash(uncharted)}));
+        when(gameRepository.findAllById(List.of(11L))).thenReturn(List.of(uncharted));
+
+        // When
+        populationService.populateGames();
+
+        // Then
+        verify(gameRepository).saveAll(argThat((List<Game> games) -> games.size() == 1
+                && games.get(0).getId() == 11L && games.get(0).getGenre().equals("Action, Adventure")));
+        assertEquals(1.0, meterRegistry.get("catalog.sync.changes").tag("type", "updated").counter().count());
+        assertEquals(0.0, meterRegistry.get("catalog.sync.changes").tag("type", "inserted").counter().count());
+    }
+
+    @Test
+    public void whenGameHasNoExternalIdShouldInsertTheCatalogGameBesideIt() {
+        // When
+        populationService.populateGames();
+
+        // Then
+        verify(gameRepository).saveAll(argThat((List<Game> games) -> games.size() == 2
+                && games.stream().allMatch(game -> game.getId() == null && game.getExternalId() != null)));
+        assertEquals(2.0, meterRegistry.get("catalog.sync.changes").tag("type", "inserted").counter().count());
+    }
+
+    @Test
+    public void whenCatalogIsLargeShouldImportEveryGameInBatches() {
+        // Given
+        StringBuilder large = new StringBuilder("[");
+        for (int id = 1; id <= 1200; id++) {
+            large.append(id > 1 ? "," : "").append("{\"id\":").append(id)
+                    .append(",\"name\":\"Game ").append(id).append("\",\"genre\":[\"Action\"],\"release_dates\":{\"NA\":\"2020\"}}");
+        }
+        catalog = large.append("]").toString();
+        ReflectionTestUtils.setField(catalogImporter, "batchSize", 500);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(gameRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            batchSizes.add(((List<?>) invocation.getArgument(0)).size());
+            return List.of();
+        });
+
+        // When
+        populationService.populateGames();
+
+        // Then
+        assertEquals(List.of(500, 500, 200), batchSizes);
+        assertEquals(1200, populationService.getImportedGames());
+        verify(gameRepository, times(3)).findHashesByExternalIdIn(any());
+    }
+
+    @Test
+    public void whenCatalogIsNotAnArrayShouldFailWithoutReplacingSnapshot() {
+        // Given
+        catalog = "{\"error\": \"rate limited\"}";
+
+        // When
+        populationService.populateGames();
+
+        // Then
+        assertEquals(GameDataPopulationService.Status.FAILED, populationService.getStatus());
+        assertFalse(Files.exists(snapshotDir.resolve("catalog.json")));
+    }
+
+    @Test
+    public void whenAnotherNodeHoldsTheLockShouldSkipAndTrustItsImport() {
+        // Given
+        when(jobLockService.tryAcquire(eq(GameDataPopulationService.LOCK_NAME), any())).thenReturn(false);
+        when(gameRepository.existsByExternalIdIsNotNull()).thenReturn(true);
+
+        // When
+        populationService.populateGames();
+
+        // Then
+        assertTrue(ifNoneMatch.isEmpty());
+        verify(gameRepository, never()).saveAll(anyList());
+        verify(jobLockService, never()).release(any());
+        assertEquals(GameDataPopulationService.Status.COMPLETED, populationService.getStatus());
+        assertEquals(1, meterRegistry.get("catalog.sync.duration").tag("outcome", "skipped").timer().count());
+    }
+
+    @Test
+    public void whenSyncFinishesShouldReleaseTheLock() {
+        // When
+        populationService.populateGames();
+
+        // Then
+        verify(jobLockService).release(GameDataPopulationService.LOCK_NAME);
+        assertEquals(1, meterRegistry.get("catalog.sync.duration").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    public void whenCatalogNotImportedYetShouldRetrySoonerThanTheInterval() {
+        // Given
+        ReflectionTestUtils.setField(populationService, "syncIntervalMillis", 3_600_000L);
+        ReflectionTestUtils.setField(populationService, "syncJitterMillis", 1_000L);
+        ReflectionTestUtils.setField(populationService, "retryMillis", 30_000L);
+
+        // When
+        long retryDelay = populationService.nextDelayMillis();
+        populationService.populateGames();
+        long syncDelay = populationService.nextDelayMillis();
+
+        // Then
+        assertTrue(retryDelay >= 30_000L && retryDelay <= 31_000L);
+        assertTrue(syncDelay >= 3_600_000L && syncDelay <= 3_601_000L);
+    }
+
+    @Test
+    public void whenApiIsUnreachableShouldReportCatalogDownWithError() {
+        // Given
+        apiStatus = 503;
+
+        // When
+        populationService.populateGames();
+
+        // Then
+        assertEquals(GameDataPopulationService.Status.FAILED, populationService.getStatus());
+        assertEquals(Status.DOWN, healthIndicator.health().getStatus());
+        assertNotNull(healthIndicator.health().getDetails().get("error"));
+        verify(gameRepository, never()).saveAll(anyList());
+        assertFalse(Files.exists(snapshotDir.resolve("catalog.json")));
+    }
+
+    private GameDataPopulationService newService() {
+        GameDataPopulationService service = new GameDataPopulationService(gameRepository, new RestTemplate(),
+                new CatalogSnapshotStore(snapshotDir.resolve("catalog.json").toString()), catalogImporter,
+                jobLockService, meterRegistry);
+        ReflectionTestUtils.setField(service, "gameApiUrl", "http://127.0.0.1:" + api.getAddress().getPort() + "/games");
+        return service;
+    }
+}
@@ -1,6 +1,8 @@
 package com.btg.challenge.game;
 
+import com.btg.challenge.shared.exception.BadRequestException;
 import com.btg.challenge.shared.exception.ResourceNotFoundException;
+import com.btg.challenge.shared.pagination.CursorPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -8,13 +10,22 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 import org.mapstruct.factory.Mappers;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -26,6 +37,12 @@ public class GameServiceTest {
     @Spy
     private GameMapper gameMapper = Mappers.getMapper(GameMapper.class);
 
+    @Mock
+    private GenreService genreService;
+
+    @Mock
+    private GenreIndex genreIndex;
+
     @InjectMocks
     private GameService gameService;
 
@@ -113,4 +130,116 @@ public class GameServiceTest {
         gameService.deleteById(1L);
         verify(gameRepository, times(1)).deleteById(1L);
     }
+
+    @Test
+    public void whenFindAfterLastPageShouldReturnNoNextCursor() {
+        Game game = new Game();
+        game.setId(5L);
+        game.setName("God of War");
+
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21))).thenReturn(List.of(game));
+
+        CursorPage<GameDto> result = gameService.findAfter("", 20);
+
+        assertEquals(1, result.content().size());
+        assertEquals("God of War", result.content().get(0).getName());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    public void whenSaveGameShouldLinkAndIndexItsGenres() {
+        GameDto gameDto = new GameDto("Uncharted", "Action, Adventure");
+        Set<Genre> genres = Set.of(new Genre(1L, "Action"), new Genre(2L, "Adventure"));
+        when(genreService.resolve("Action, Adventure")).thenReturn(genres);
+        when(gameRepository.save(any(Game.class))).thenAnswer(invocation -> {
+            Game game = invocation.getArgument(0);
+            game.setId(7L);
+            return game;
+        });
+
+        gameService.save(gameDto);
+
+        verify(gameRepository).save(argThat(game -> game.getGenres().equals(genres)));
+        verify(genreIndex).put(7L, List.of("Action", "Adventure"));
+    }
+
+    @Test
+    public void whenUpdateGameShouldReindexItsGenres() {
+        Game game = new Game(1L, "Uncharted", "Action");
+        when(gameRepository.findById(1L)).thenReturn(Optional.of(game));
+        when(gameRepository.save(any(Game.class))).thenReturn(game);
+
+        gameService.update(1L, new GameDto("Uncharted", "Adventure"));
+
+        verify(genreService).resolve("Adventure");
+        verify(genreIndex).put(1L, List.of("Adventure"));
+    }
+
+    @Test
+    public void whenDeleteByIdShouldRemoveGameFromGenreIndex() {
+        gameService.deleteById(1L);
+
+        verify(genreIndex).remove(1L);
+    }
+
+    @Test
+    public void whenFindByGenresShouldCombineFiltersAndPageThroughMatches() {
+        when(genreIndex.match(List.of(List.of("Action", "RPG"), List.of("Shooter"))))
+                .thenReturn(Roaring64Bitmap.bitmapOf(3L, 5L, 8L, 13L));
+        when(gameRepository.findAllById(List.of(8L, 13L)))
+                .thenReturn(List.of(new Game(13L, "Halo", "Shooter"), new Game(8L, "Destiny", "RPG, Shooter")));
+
+        Page<GameDto> result = gameService.findByGenres(List.of("Action|RPG, Shooter"), PageRequest.of(1, 2));
+
+        assertEquals(4, result.getTotalElements());
+        assertEquals(List.of(8L, 13L), result.getContent().stream().map(GameDto::getId).toList());
+    }
+
+    @Test
+    public void whenFindByGenresPastTheLastMatchShouldReturnEmptyPage() {
+        when(genreIndex.match(any())).thenReturn(Roaring64Bitmap.bitmapOf(3L));
+
+        Page<GameDto> result = gameService.findByGenres(List.of("Action"), PageRequest.of(1, 20));
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals(0, result.getContent().size());
+        verify(gameRepository, never()).findAllById(any());
+    }
+
+    @Test
+    public void whenFindByGenresAfterCursorShouldReturnNextSlice() {
+        when(genreIndex.match(List.of(List.of("Action")))).thenReturn(Roaring64Bitmap.bitmapOf(3L, 5L, 8L));
+        when(gameRepository.findAllById(List.of(3L, 5L)))
+                .thenReturn(List.of(new Game(3L, "God of War", "Action"), new Game(5L, "Uncharted", "Action")));
+
+        CursorPage<GameDto> result = gameService.findByGenresAfter(List.of("Action"), "", 1);
+
+        assertEquals(1, result.content().size());
+        assertEquals(3L, result.content().get(0).getId());
+        assertNotNull(result.nextCursor());
+    }
+
+    @Test
+    public void whenFindByGenresSortedByIdDescendingShouldPageFromTheLastMatch() {
+        when(genreIndex.match(any())).thenReturn(Roaring64Bitmap.bitmapOf(3L, 5L, 8L, 13L));
+        when(gameRepository.findAllById(List.of(5L, 3L)))
+                .thenReturn(List.of(new Game(3L, "God of War", "Action"), new Game(5L, "Uncharted", "Action")));
+
+        Page<GameDto> result = gameService.findByGenres(List.of("Action"), PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+        assertEquals(4, result.getTotalElements());
+        assertEquals(List.of(5L, 3L), result.getContent().stream().map(GameDto::getId).toList());
+    }
+
+    @Test
+    public void whenFindByGenresSortedByAnotherPropertyShouldThrowBadRequestException() {
+        assertThrows(BadRequestException.class,
+                () -> gameService.findByGenres(List.of("Action"), PageRequest.of(0, 20, Sort.by("name"))));
+        verifyNoInteractions(genreIndex);
+    }
+
+    @Test
+    public void whenGenreFilterIsEmptyShouldThrowBadRequestException() {
+        assertThrows(BadRequestException.class, () -> gameService.findByGenres(List.of(" | "), Pageable.ofSize(20)));
+    }
 }
@@ -0,0 +1,125 @@
+package com.btg.challenge.game;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class GenreIndexTest {
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private GenreIndex genreIndex;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        genreIndex = new GenreIndex(gameRepository, transactionManager);
+        when(gameRepository.streamGenres()).thenReturn(Stream.of(
+                new Object[]{1L, "Action"},
+                new Object[]{2L, "Action"}, new Object[]{2L, "RPG"},
+                new Object[]{3L, "RPG"}, new Object[]{3L, "Shooter"},
+                new Object[]{4L, "Shooter"}));
+        genreIndex.rebuild();
+    }
+
+    @Test
+    public void whenGroupHasSeveralGenresShouldMatchGamesWithAnyOfThem() {
+        // When
+        Roaring64Bitmap games = genreIndex.match(List.of(List.of("Action", "Shooter")));
+
+        // Then
+        assertEquals(Roaring64Bitmap.bitmapOf(1L, 2L, 3L, 4L), games);
+    }
+
+    @Test
+    public void whenSeveralGroupsShouldMatchGamesInEveryGroup() {
+        // When
+        Roaring64Bitmap games = genreIndex.match(List.of(List.of("Action", "Shooter"), List.of("rpg")));
+
+        // Then
+        assertEquals(Roaring64Bitmap.bitmapOf(2L, 3L), games);
+    }
+
+    @Test
+    public void whenGenreIsUnknownShouldMatchNothing() {
+        // When
+        Roaring64Bitmap games = genreIndex.match(List.of(List.of("Action"), List.of("Racing")));
+
+        // Then
+        assertTrue(games.isEmpty());
+    }
+
+    @Test
+    public void whenGameIsPutAgainShouldReplaceItsGenres() {
+        // When
+        genreIndex.put(2L, List.of("Shooter"));
+
+        // Then
+        assertEquals(Roaring64Bitmap.bitmapOf(1L), genreIndex.match(List.of(List.of("Action"))));
+        assertEquals(Roaring64Bitmap.bitmapOf(2L, 3L, 4L), genreIndex.match(List.of(List.of("Shooter"))));
+    }
+
+    @Test
+    public void whenGamesAreRemovedShouldNoLongerMatch() {
+        // When
+        genreIndex.removeAll(List.of(1L, 2L));
+
+        // Then
+        assertTrue(genreIndex.match(List.of(List.of("Action"))).isEmpty());
+        assertEquals(Roaring64Bitmap.bitmapOf(3L), genreIndex.match(List.of(List.of("RPG"))));
+    }
+
+    @Test
+    public void whenMatchResultIsModifiedShouldNotChangeTheIndex() {
+        // Given
+        genreIndex.match(List.of(List.of("Action"))).addLong(99L);
+
+        // When & Then
+        assertEquals(Roaring64Bitmap.bitmapOf(1L, 2L), genreIndex.match(List.of(List.of("Action"))));
+    }
+
+    @Test
+    public void whenRebuiltShouldPickUpGamesChangedElsewhere() {
+        // Given
+        when(gameRepository.streamGenres()).thenReturn(Stream.<Object[]>of(new Object[]{1L, "Action"}, new Object[]{5L, "Racing"}));
+
+        // When
+        genreIndex.rebuild();
+
+        // Then
+        assertEquals(Roaring64Bitmap.bitmapOf(1L), genreIndex.match(List.of(List.of("Action"))));
+        assertEquals(Roaring64Bitmap.bitmapOf(5L), genreIndex.match(List.of(List.of("Racing"))));
+        assertTrue(genreIndex.match(List.of(List.of("RPG", "Shooter"))).isEmpty());
+    }
+
+    @Test
+    public void whenGamesAreWrittenDuringRebuildShouldKeepTheWrites() {
+        // Given
+        when(gameRepository.streamGenres()).thenReturn(Stream.<Object[]>of(new Object[]{1L, "Action"}, new Object[]{2L, "Action"})
+                .peek(row -> {
+                    if (row[0].equals(1L)) {
+                        genreIndex.put(6L, List.of("Racing"));
+                        genreIndex.remove(2L);
+                    }
+                }));
+
+        // When
+        genreIndex.rebuild();
+
+        // Then
+        assertEquals(Roaring64Bitmap.bitmapOf(1L), genreIndex.match(List.of(List.of("Action"))));
+        assertEquals(Roaring64Bitmap.bitmapOf(6L), genreIndex.match(List.of(List.of("Racing"))));
+    }
+}
@@ -0,0 +1,67 @@
+package com.btg.challenge.game;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class GenreServiceTest {
+    @Mock
+    private GenreRepository genreRepository;
+
+    @InjectMocks
+    private GenreService genreService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void whenLabelHasSpacesAndDuplicatesShouldParseDistinctNames() {
+        // When & Then
+        assertEquals(List.of("Action", "Adventure"), GenreService.parse(" Action,Adventure, ,Action"));
+        assertEquals(List.of(), GenreService.parse(null));
+    }
+
+    @Test
+    public void whenGenresAreMissingShouldCreateThem() {
+        // Given
+        Genre action = new Genre(1L, "Action");
+        when(genreRepository.findByNameIn(List.of("Action", "Adventure"))).thenReturn(List.of(action));
+        when(genreRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Set<Genre> genres = genreService.resolve("Action, Adventure");
+
+        // Then
+        verify(genreRepository).saveAll(argThat((List<Genre> created) -> created.size() == 1
+                && created.get(0).getName().equals("Adventure")));
+        assertEquals(2, genres.size());
+        assertTrue(genres.contains(action));
+    }
+
+    @Test
+    public void whenGenreIsCreatedConcurrentlyShouldReadItBack() {
+        // Given
+        Genre action = new Genre(1L, "Action");
+        when(genreRepository.findByNameIn(List.of("Action"))).thenReturn(List.of(), List.of(action));
+        when(genreRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("genre_name_key"));
+
+        // When
+        Map<String, Genre> genres = genreService.resolve(List.of("Action"));
+
+        // Then
+        assertEquals(Map.of("Action", action), genres);
+    }
+}
@@ -0,0 +1,92 @@
+package com.btg.challenge.loan;
+
+import com.btg.challenge.shared.pagination.CursorPage;
+import com.btg.challenge.shared.pagination.Cursors;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class LoanArchiveServiceTest {
+    private static final LocalDate CUTOFF = LocalDate.of(2024, 1, 1);
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private ArchivedLoanRepository archivedLoanRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoanArchiveService loanArchiveService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        loanArchiveService = new LoanArchiveService(loanRepository, archivedLoanRepository, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(loanArchiveService, "batchSize", 2);
+    }
+
+    @Test
+    public void whenArchivingShouldMoveBatchesWalkingIdsInOrder() {
+        // Given
+        when(loanRepository.findArchivableIds(0L, CUTOFF, Limit.of(2))).thenReturn(List.of(1L, 4L));
+        when(loanRepository.findArchivableIds(4L, CUTOFF, Limit.of(2))).thenReturn(List.of(7L));
+        when(loanRepository.findArchivableIds(7L, CUTOFF, Limit.of(2))).thenReturn(List.of());
+        when(loanRepository.deleteByIds(any())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        // When
+        int moved = loanArchiveService.archiveReturnedBefore(CUTOFF);
+
+        // Then
+        assertEquals(3, moved);
+        InOrder inOrder = inOrder(loanRepository, transactionManager);
+        inOrder.verify(loanRepository).copyToArchive(List.of(1L, 4L));
+        inOrder.verify(loanRepository).deleteByIds(List.of(1L, 4L));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(loanRepository).copyToArchive(List.of(7L));
+        inOrder.verify(loanRepository).deleteByIds(List.of(7L));
+        inOrder.verify(transactionManager).commit(any());
+        assertEquals(3.0, meterRegistry.counter("loan.archive.moved").count());
+    }
+
+    @Test
+    public void whenNothingToArchiveShouldNotWrite() {
+        // When
+        int moved = loanArchiveService.archiveReturnedBefore(CUTOFF);
+
+        // Then
+        assertEquals(0, moved);
+        verify(loanRepository, never()).copyToArchive(any());
+        verify(loanRepository, never()).deleteByIds(any());
+    }
+
+    @Test
+    public void whenReadingArchiveShouldSeekAfterCursor() {
+        // Given
+        when(archivedLoanRepository.findProjectedAfter(0L, Limit.of(3))).thenReturn(List.of(
+                new LoanDto(1L, 1L, 1L, CUTOFF, CUTOFF), new LoanDto(2L, 1L, 1L, CUTOFF, CUTOFF), new LoanDto(3L, 1L, 1L, CUTOFF, CUTOFF)));
+
+        // When
+        CursorPage<LoanDto> page = loanArchiveService.getArchivedLoansAfter("", 2);
+
+        // Then
+        assertEquals(2, page.content().size());
+        assertEquals(2L, Cursors.decode(page.nextCursor()));
+    }
+}
@@ -1,8 +1,12 @@
 package com.btg.challenge.loan;
 
 import com.btg.challenge.shared.config.JwtTokenProvider;
+import com.btg.challenge.shared.service.TokenRevocationService;
+import com.btg.challenge.shared.config.JwtAuthenticationCache;
+import com.btg.challenge.shared.exception.BadRequestException;
 import com.btg.challenge.shared.exception.GlobalExceptionHandler;
 import com.btg.challenge.shared.exception.ResourceNotFoundException;
+import com.btg.challenge.shared.pagination.CursorPage;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,11 +18,18 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -37,9 +48,24 @@ public class LoanControllerTest {
     @MockBean
     private LoanService loanService;
 
+    @MockBean
+    private LoanExportService loanExportService;
+
+    @MockBean
+    private LoanStatistics loanStatistics;
+
+    @MockBean
+    private LoanArchiveService loanArchiveService;
+
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
 
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private JwtAuthenticationCache jwtAuthenticationCache;
+
     @Test
     @WithMockUser(username = "user")
     public void whenCreateLoanWithValidDataShouldReturnCreatedResponse() throws Exception {
@@ -67,6 +93,36 @@ public class LoanControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(username = "user")
+    public void whenGetArchivedLoansShouldReturnCursorPageFromArchive() throws Exception {
+        when(loanArchiveService.getArchivedLoansAfter("", 20)).thenReturn(new CursorPage<>(
+                List.of(new LoanDto(1L, 2L, 3L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2))), "next"));
+
+        mockMvc.perform(get("/loans/archive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+        verifyNoInteractions(loanService);
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenGetStatisticsShouldReturnInMemoryAggregates() throws Exception {
+        LoanStatisticsDto statistics = new LoanStatisticsDto(3, 1,
+                List.of(new LoanStatisticsDto.GameLoans(10L, 2)),
+                Map.of(1L, 1), Map.of(LocalDate.of(2024, 1, 1), 3));
+        when(loanStatistics.getStatistics()).thenReturn(statistics);
+
+        mockMvc.perform(get("/loans/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalLoans").value(3))
+                .andExpect(jsonPath("$.topGames[0].gameId").value(10))
+                .andExpect(jsonPath("$.activeLoansPerFriend.1").value(1))
+                .andExpect(jsonPath("$.loansPerDay['2024-01-01']").value(3));
+        verifyNoInteractions(loanService);
+    }
+
     @Test
     @WithMockUser(username = "user")
     public void whenReturnLoanWithValidIdShouldReturnOkResponse() throws Exception {
@@ -301,4 +357,124 @@ public class LoanControllerTest {
 
         verifyNoInteractions(loanService);
     }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenGetAllLoansWithCursorShouldReturnCursorPageWithoutTotals() throws Exception {
+        // Given
+        LoanDto loan = new LoanDto();
+        loan.setId(3L);
+        when(loanService.getLoansAfter("abc", 1)).thenReturn(new CursorPage<>(List.of(loan), "next"));
+
+        // When & Then
+        mockMvc.perform(get("/loans")
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.page").doesNotExist());
+
+        verify(loanService, never()).getAllLoans(any());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenGetAllLoansWithInvalidCursorShouldReturnBadRequest() throws Exception {
+        // Given
+        when(loanService.getLoansAfter("bogus", 20)).thenThrow(new BadRequestException("Invalid cursor"));
+
+        // When & Then
+        mockMvc.perform(get("/loans").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenCreateLoansInBatchShouldReturnPerItemResults() throws Exception {
+        // Given
+        List<LoanRequestDto> requests = List.of(new LoanRequestDto(1L, 1L), new LoanRequestDto(9L, 1L));
+        LoanDto created = new LoanDto(5L, 1L, 1L, null, null);
+        when(loanService.createLoans(anyList())).thenReturn(List.of(
+                new LoanBatchResultDto(LoanBatchResultDto.Status.CREATED, created),
+                new LoanBatchResultDto(LoanBatchResultDto.Status.FRIEND_NOT_FOUND, null)));
+
+        // When & Then
+        mockMvc.perform(post("/loans/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].loan.id").value(5))
+                .andExpect(jsonPath("$[1].status").value("FRIEND_NOT_FOUND"));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenReturnLoansInBatchShouldReturnPerItemResults() throws Exception {
+        // Given
+        when(loanService.returnLoans(List.of(1L, 2L))).thenReturn(List.of(
+                new LoanBatchResultDto(LoanBatchResultDto.Status.RETURNED, new LoanDto()),
+                new LoanBatchResultDto(LoanBatchResultDto.Status.LOAN_NOT_FOUND, null)));
+
+        // When & Then
+        mockMvc.perform(put("/loans/return")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("RETURNED"))
+                .andExpect(jsonPath("$[1].status").value("LOAN_NOT_FOUND"));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenExportLoansWithoutAcceptShouldStreamNdjson() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(loanExportService).writeNdjson(any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/loans/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", containsString("loans.ndjson")))
+                .andExpect(content().string("{\"id\":1}\n"));
+        verify(loanExportService, never()).writeCsv(any());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenExportLoansAcceptingCsvShouldStreamCsv() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/loans/export")
+                        .accept("application/x-ndjson;q=0.5, text/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"));
+        verify(loanExportService, times(1)).writeCsv(any());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenExportLoansAcceptingOnlyUnsupportedTypeShouldReturnNotAcceptable() throws Exception {
+        mockMvc.perform(get("/loans/export").accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+
+        verifyNoInteractions(loanExportService);
+    }
 }
@@ -0,0 +1,128 @@
+package com.btg.challenge.loan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class LoanExportServiceTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private ArchivedLoanRepository archivedLoanRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LoanExportService loanExportService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        loanExportService = new LoanExportService(loanRepository, archivedLoanRepository, transactionManager, objectMapper);
+    }
+
+    @Test
+    public void whenWriteNdjsonShouldWriteOneJsonObjectPerLine() throws IOException {
+        // Given
+        when(loanRepository.streamAllProjected()).thenReturn(Stream.of(
+                new LoanDto(1L, 2L, 3L, LocalDate.of(2024, 1, 1), null),
+                new LoanDto(2L, 2L, 4L, LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 9))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        loanExportService.writeNdjson(out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"id\":1,\"friendId\":2,\"gameId\":3,\"loanDate\":\"2024-01-01\",\"returnDate\":null,\"dueDate\":null}", lines[0]);
+        assertTrue(lines[1].contains("\"returnDate\":\"2024-01-09\""));
+    }
+
+    @Test
+    public void whenWriteCsvShouldWriteHeaderAndOneRowPerLoan() throws IOException {
+        // Given
+        when(loanRepository.streamAllProjected()).thenReturn(Stream.of(
+                new LoanDto(1L, 2L, 3L, LocalDate.of(2024, 1, 1), null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        loanExportService.writeCsv(out);
+
+        // Then
+        assertEquals("id,friendId,gameId,loanDate,returnDate,dueDate\n1,2,3,2024-01-01,,\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void whenLoansWereArchivedShouldWriteArchivedLoansFirst() throws IOException {
+        // Given
+        when(archivedLoanRepository.streamAllProjected()).thenReturn(Stream.of(
+                new LoanDto(1L, 2L, 3L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2))));
+        when(loanRepository.streamAllProjected()).thenReturn(Stream.of(
+                new LoanDto(5L, 2L, 3L, LocalDate.of(2024, 6, 1), null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        loanExportService.writeCsv(out);
+
+        // Then
+        assertEquals("id,friendId,gameId,loanDate,returnDate,dueDate\n1,2,3,2024-01-01,2024-01-02,\n5,2,3,2024-06-01,,\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void whenExportingShouldReadOneReadOnlySnapshotAndCloseTheCursor() throws IOException {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(loanRepository.streamAllProjected()).thenReturn(Stream.<LoanDto>empty().onClose(() -> closed.set(true)));
+
+        // When
+        loanExportService.writeNdjson(new ByteArrayOutputStream());
+
+        // Then
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()
+                && definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void whenClientDisconnectsShouldPropagateIoExceptionAndCloseTheCursor() {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(loanRepository.streamAllProjected()).thenReturn(Stream.of(new LoanDto(1L, 2L, 3L, LocalDate.of(2024, 1, 1), null))
+                .onClose(() -> closed.set(true)));
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // When & Then
+        assertThrows(IOException.class, () -> loanExportService.writeCsv(broken));
+        assertTrue(closed.get());
+    }
+}
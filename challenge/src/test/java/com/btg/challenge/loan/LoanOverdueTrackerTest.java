@@ -0,0 +1,124 @@
+package com.btg.challenge.loan;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class LoanOverdueTrackerTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 10);
+    private static final long HOUR = 3_600_000;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private OverdueLoanSink sink;
+
+    private final AtomicLong now = new AtomicLong(startOf(TODAY) + 12 * HOUR);
+    private LoanOverdueTracker tracker;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tracker = new LoanOverdueTracker(loanRepository, List.of(sink), transactionManager, new SimpleMeterRegistry(),
+                60_000, 64, now::get);
+    }
+
+    @Test
+    public void whenLoadedShouldReportLoansOnceTheirDueDateHasEnded() {
+        // Given
+        LoanDto overdue = loan(1L, TODAY.minusDays(1));
+        LoanDto dueToday = loan(2L, TODAY);
+        when(loanRepository.streamOpenWithDueDate()).thenReturn(Stream.of(overdue, dueToday));
+        tracker.load();
+
+        // When
+        tracker.tick();
+        now.set(startOf(TODAY.plusDays(1)) + 1);
+        tracker.tick();
+
+        // Then
+        verify(sink).overdue(overdue);
+        verify(sink).overdue(dueToday);
+        verify(loanRepository, times(1)).streamOpenWithDueDate();
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    public void whenLoanIsReturnedShouldNotReportIt() {
+        // Given
+        LoanDto loan = loan(1L, TODAY);
+        tracker.onLoanChanged(LoanChangedEvent.created(List.of(loan, loan(2L, null))));
+
+        // When
+        tracker.onLoanChanged(LoanChangedEvent.returned(List.of(loan)));
+        now.set(startOf(TODAY.plusDays(2)));
+        tracker.tick();
+
+        // Then
+        verifyNoInteractions(sink);
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    public void whenLoanIsReturnedWhileLoadingShouldNotTrackItsStaleRow() {
+        // Given
+        LoanDto kept = loan(1L, TODAY.minusDays(1));
+        LoanDto returned = loan(2L, TODAY.minusDays(1));
+        when(loanRepository.streamOpenWithDueDate()).thenReturn(Stream.of(kept, returned)
+                .peek(loan -> {
+                    if (loan == kept) {
+                        tracker.onLoanChanged(LoanChangedEvent.returned(List.of(returned)));
+                    }
+                }));
+
+        // When
+        tracker.load();
+        tracker.tick();
+
+        // Then
+        verify(sink).overdue(kept);
+        verify(sink, never()).overdue(returned);
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    public void whenSinkFailsShouldStillNotifyOtherSinks() {
+        // Given
+        OverdueLoanSink failing = mock(OverdueLoanSink.class);
+        doThrow(new IllegalStateException("down")).when(failing).overdue(any());
+        tracker = new LoanOverdueTracker(loanRepository, List.of(failing, sink), transactionManager, new SimpleMeterRegistry(),
+                60_000, 64, now::get);
+        LoanDto loan = loan(1L, TODAY.minusDays(3));
+        tracker.onLoanChanged(LoanChangedEvent.created(List.of(loan)));
+
+        // When
+        tracker.tick();
+
+        // Then
+        verify(sink).overdue(loan);
+    }
+
+    private static LoanDto loan(Long id, LocalDate dueDate) {
+        return new LoanDto(id, 1L, id + 100, TODAY.minusDays(7), null, dueDate);
+    }
+
+    private static long startOf(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,169 @@
+package com.btg.challenge.loan;
+
+import com.btg.challenge.friend.Friend;
+import com.btg.challenge.friend.FriendRepository;
+import com.btg.challenge.game.Game;
+import com.btg.challenge.game.GameRepository;
+import com.btg.challenge.shared.exception.ConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Many threads try to lend the same games at once against a repository that, like the
+ * database without its unique index, accepts every insert. Exactly one loan per game
+ * must come out of it.
+ */
+public class LoanServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 20;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private FriendRepository friendRepository;
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private LoanMapper loanMapper = Mappers.getMapper(LoanMapper.class);
+
+    @InjectMocks
+    private LoanService loanService;
+
+    private final List<Loan> stored = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(loanService, "lockTimeoutMillis", 10_000L);
+
+        when(friendRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(new Friend(invocation.getArgument(0), "friend")));
+        when(gameRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(new Game(invocation.getArgument(0), "game", "genre")));
+        when(friendRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<Long> friendIds = invocation.getArgument(0);
+            return friendIds.stream().map(id -> new Friend(id, "friend")).toList();
+        });
+        when(gameRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<Long> gameIds = invocation.getArgument(0);
+            return gameIds.stream().map(id -> new Game(id, "game", "genre")).toList();
+        });
+        when(loanRepository.findOpenLoanGameIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> gameIds = invocation.getArgument(0);
+            List<Long> open = stored.stream()
+                    .filter(loan -> loan.getReturnDate() == null && gameIds.contains(loan.getGame().getId()))
+                    .map(loan -> loan.getGame().getId())
+                    .toList();
+            Thread.sleep(1); // widen the window between the check and the insert
+            return open;
+        });
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> store(invocation.getArgument(0)));
+        when(loanRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Loan> loans = invocation.getArgument(0);
+            loans.forEach(this::store);
+            return loans;
+        });
+    }
+
+    @Test
+    public void whenManyThreadsLendTheSameGamesShouldCreateExactlyOneOpenLoanPerGame() throws Exception {
+        // Given
+        long games = 5;
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        // When
+        race(thread -> () -> {
+            for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                long gameId = (thread + attempt) % games + 1;
+                try {
+                    if (attempt % 2 == 0) {
+                        loanService.createLoan(new LoanRequestDto((long) thread, gameId));
+                        created.incrementAndGet();
+                    } else {
+                        List<LoanBatchResultDto> results = loanService.createLoans(List.of(
+                                new LoanRequestDto((long) thread, gameId),
+                                new LoanRequestDto((long) thread, gameId % games + 1)));
+                        results.stream()
+                                .filter(result -> result.getStatus() == LoanBatchResultDto.Status.CREATED)
+                                .forEach(result -> created.incrementAndGet());
+                    }
+                } catch (ConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        // Then
+        assertEquals(games, stored.size());
+        assertEquals(games, stored.stream().map(loan -> loan.getGame().getId()).distinct().count());
+        assertEquals(games, created.get());
+    }
+
+    private Loan store(Loan loan) {
+        loan.setId(ids.incrementAndGet());
+        stored.add(loan);
+        return loan;
+    }
+
+    private void race(IntFunction<Callable<Void>> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                Callable<Void> body = task.apply(thread);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return body.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -4,7 +4,12 @@ import com.btg.challenge.friend.Friend;
 import com.btg.challenge.friend.FriendRepository;
 import com.btg.challenge.game.Game;
 import com.btg.challenge.game.GameRepository;
+import com.btg.challenge.loan.LoanBatchResultDto.Status;
+import com.btg.challenge.shared.exception.BadRequestException;
+import com.btg.challenge.shared.exception.ConflictException;
 import com.btg.challenge.shared.exception.ResourceNotFoundException;
+import com.btg.challenge.shared.pagination.CursorPage;
+import com.btg.challenge.shared.pagination.Cursors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -12,11 +17,27 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 import org.mapstruct.factory.Mappers;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 public class LoanServiceTest {
@@ -29,6 +50,12 @@ public class LoanServiceTest {
     @Mock
     private GameRepository gameRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Spy
     private LoanMapper loanMapper = Mappers.getMapper(LoanMapper.class);
 
@@ -99,13 +126,18 @@ public class LoanServiceTest {
     public void whenReturnLoanWithValidIdShouldMarkAsReturned() {
         Loan loan = new Loan();
         loan.setId(1L);
+        loan.setReturnDate(LocalDate.now());
 
+        when(loanRepository.markReturned(1L, LocalDate.now())).thenReturn(1);
         when(loanRepository.findById(1L)).thenReturn(Optional.of(loan));
-        when(loanRepository.save(any(Loan.class))).thenReturn(loan);
 
-        loanService.returnLoan(1L);
+        LoanDto result = loanService.returnLoan(1L);
 
-        verify(loanRepository, times(1)).save(any(Loan.class));
+        assertEquals(LocalDate.now(), result.getReturnDate());
+        verify(loanRepository, times(1)).markReturned(1L, LocalDate.now());
+        verify(loanRepository, never()).save(any(Loan.class));
+        verify(eventPublisher).publishEvent(argThat((LoanChangedEvent event) ->
+                event.returned().stream().map(LoanDto::getId).toList().equals(List.of(1L))));
     }
 
     @Test
@@ -114,4 +146,249 @@ public class LoanServiceTest {
 
         assertThrows(ResourceNotFoundException.class, () -> loanService.returnLoan(1L));
     }
+
+    @Test
+    public void whenGetAllLoansShouldReturnProjectedPageWithoutLoadingEntities() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<LoanDto> page = new PageImpl<>(List.of(new LoanDto(1L, 2L, 3L, LocalDate.of(2024, 1, 1), null)), pageable, 1);
+        when(loanRepository.findAllProjected(pageable)).thenReturn(page);
+
+        // When
+        Page<LoanDto> result = loanService.getAllLoans(pageable);
+
+        // Then
+        assertSame(page, result);
+        assertEquals(2L, result.getContent().get(0).getFriendId());
+        verify(loanRepository, never()).findAll(any(Pageable.class));
+        verifyNoInteractions(loanMapper);
+    }
+
+    @Test
+    public void whenGetLoansAfterCursorShouldUseProjectedSeekQuery() {
+        // Given
+        List<LoanDto> rows = List.of(new LoanDto(8L, 1L, 1L, LocalDate.of(2024, 1, 1), null),
+                new LoanDto(9L, 1L, 2L, LocalDate.of(2024, 1, 2), null));
+        when(loanRepository.findProjectedAfter(7L, Limit.of(2))).thenReturn(rows);
+
+        // When
+        CursorPage<LoanDto> result = loanService.getLoansAfter(Cursors.encode(7L), 1);
+
+        // Then
+        assertEquals(1, result.content().size());
+        assertEquals(8L, result.content().get(0).getId());
+        assertEquals(8L, Cursors.decode(result.nextCursor()));
+        verify(loanRepository, never()).findAllProjected(any(Pageable.class));
+    }
+
+    @Test
+    public void whenCreateLoansShouldResolveIdsOnceAndReportEachItem() {
+        // Given
+        Friend friend = new Friend(1L, "John");
+        Game game = new Game(10L, "God of War", "Action");
+        Game otherGame = new Game(12L, "Uncharted", "Adventure");
+        List<LoanRequestDto> requests = List.of(
+                new LoanRequestDto(1L, 10L),
+                new LoanRequestDto(2L, 10L),
+                new LoanRequestDto(1L, 11L),
+                new LoanRequestDto(1L, 12L));
+
+        when(friendRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(friend));
+        when(gameRepository.findAllById(List.of(10L, 11L, 12L))).thenReturn(List.of(game, otherGame));
+        when(loanRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Loan> loans = invocation.getArgument(0);
+            for (int i = 0; i < loans.size(); i++) {
+                loans.get(i).setId(100L + i);
+            }
+            return loans;
+        });
+
+        // When
+        List<LoanBatchResultDto> results = loanService.createLoans(requests);
+
+        // Then
+        assertEquals(List.of(Status.CREATED, Status.FRIEND_NOT_FOUND, Status.GAME_NOT_FOUND, Status.CREATED),
+                results.stream().map(LoanBatchResultDto::getStatus).toList());
+        assertEquals(100L, results.get(0).getLoan().getId());
+        assertEquals(101L, results.get(3).getLoan().getId());
+        verify(friendRepository, never()).findById(any());
+        verify(gameRepository, never()).findById(any());
+        verify(loanRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    public void whenReturnLoansShouldUpdateOpenLoansAndReportEachItem() {
+        // Given
+        Loan open = new Loan(1L, new Friend(1L, "John"), new Game(10L, "God of War", "Action"), LocalDate.of(2024, 1, 1), null);
+        Loan returned = new Loan(2L, new Friend(1L, "John"), new Game(11L, "Uncharted", "Adventure"), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5));
+        when(loanRepository.findAllByIdForUpdate(List.of(1L, 2L, 3L))).thenReturn(List.of(open, returned));
+
+        // When
+        List<LoanBatchResultDto> results = loanService.returnLoans(List.of(1L, 2L, 3L));
+
+        // Then
+        assertEquals(List.of(Status.RETURNED, Status.ALREADY_RETURNED, Status.LOAN_NOT_FOUND),
+                results.stream().map(LoanBatchResultDto::getStatus).toList());
+        assertEquals(LocalDate.now(), open.getReturnDate());
+        assertEquals(LocalDate.of(2024, 1, 5), returned.getReturnDate());
+        assertEquals(LocalDate.of(2024, 1, 5), results.get(1).getLoan().getReturnDate());
+        verify(eventPublisher).publishEvent(argThat((LoanChangedEvent event) -> event.created().isEmpty()
+                && event.returned().stream().map(LoanDto::getId).toList().equals(List.of(1L))));
+    }
+
+    @Test
+    public void whenReturnLoanAlreadyReturnedShouldNotPublishChange() {
+        // Given
+        Loan loan = new Loan(1L, new Friend(1L, "John"), new Game(10L, "God of War", "Action"), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 5));
+        when(loanRepository.markReturned(1L, LocalDate.now())).thenReturn(0);
+        when(loanRepository.findById(1L)).thenReturn(Optional.of(loan));
+
+        // When
+        LoanDto result = loanService.returnLoan(1L);
+
+        // Then
+        assertEquals(LocalDate.of(2024, 1, 5), result.getReturnDate());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void whenBatchExceedsMaximumSizeShouldThrowBadRequest() {
+        // Given
+        List<Long> ids = Collections.nCopies(1001, 1L);
+
+        // When & Then
+        assertThrows(BadRequestException.class, () -> loanService.returnLoans(ids));
+        verifyNoInteractions(loanRepository);
+    }
+
+    @Test
+    public void whenCreateLoanForGameAlreadyOnLoanShouldThrowConflict() {
+        // Given
+        when(friendRepository.findById(1L)).thenReturn(Optional.of(new Friend(1L, "John")));
+        when(gameRepository.findById(10L)).thenReturn(Optional.of(new Game(10L, "God of War", "Action")));
+        when(loanRepository.findOpenLoanGameIds(List.of(10L))).thenReturn(List.of(10L));
+
+        // When & Then
+        assertThrows(ConflictException.class, () -> loanService.createLoan(new LoanRequestDto(1L, 10L)));
+        verify(loanRepository, never()).save(any(Loan.class));
+    }
+
+    @Test
+    public void whenCreateLoanWithDueDateShouldStoreItAndPublishIt() {
+        // Given
+        LocalDate dueDate = LocalDate.now().plusDays(14);
+        when(friendRepository.findById(1L)).thenReturn(Optional.of(new Friend(1L, "John")));
+        when(gameRepository.findById(10L)).thenReturn(Optional.of(new Game(10L, "God of War", "Action")));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        LoanDto result = loanService.createLoan(new LoanRequestDto(1L, 10L, dueDate));
+
+        // Then
+        assertEquals(dueDate, result.getDueDate());
+        verify(loanRepository).save(argThat(loan -> dueDate.equals(loan.getDueDate())));
+        verify(eventPublisher).publishEvent(argThat((LoanChangedEvent event) -> dueDate.equals(event.created().get(0).getDueDate())));
+    }
+
+    @Test
+    public void whenCreateLoanWithDueDateBeforeTodayShouldThrowBadRequest() {
+        // When & Then
+        assertThrows(BadRequestException.class,
+                () -> loanService.createLoan(new LoanRequestDto(1L, 10L, LocalDate.now().minusDays(1))));
+        verifyNoInteractions(loanRepository, friendRepository, gameRepository);
+    }
+
+    @Test
+    public void whenCreateLoansWithDueDateBeforeTodayShouldReportItemAndLendTheRest() {
+        // Given
+        when(friendRepository.findAllById(List.of(1L))).thenReturn(List.of(new Friend(1L, "John")));
+        when(gameRepository.findAllById(List.of(10L, 11L))).thenReturn(List.of(
+                new Game(10L, "God of War", "Action"), new Game(11L, "Uncharted", "Adventure")));
+        when(loanRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<LoanBatchResultDto> results = loanService.createLoans(List.of(
+                new LoanRequestDto(1L, 10L, LocalDate.now().minusDays(1)),
+                new LoanRequestDto(1L, 11L, LocalDate.now())));
+
+        // Then
+        assertEquals(List.of(Status.INVALID_DUE_DATE, Status.CREATED),
+                results.stream().map(LoanBatchResultDto::getStatus).toList());
+        assertEquals(LocalDate.now(), results.get(1).getLoan().getDueDate());
+    }
+
+    @Test
+    public void whenCreateLoanLosesRaceToAnotherNodeShouldTranslateUniqueViolationToConflict() {
+        // Given
+        when(friendRepository.findById(1L)).thenReturn(Optional.of(new Friend(1L, "John")));
+        when(gameRepository.findById(10L)).thenReturn(Optional.of(new Game(10L, "God of War", "Action")));
+        when(loanRepository.save(any(Loan.class))).thenThrow(new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException(), "loan_open_game_key")));
+
+        // When & Then
+        assertThrows(ConflictException.class, () -> loanService.createLoan(new LoanRequestDto(1L, 10L)));
+    }
+
+    @Test
+    public void whenCreateLoanViolatesAnotherConstraintShouldNotReportGameOnLoan() {
+        // Given
+        when(friendRepository.findById(1L)).thenReturn(Optional.of(new Friend(1L, "John")));
+        when(gameRepository.findById(10L)).thenReturn(Optional.of(new Game(10L, "God of War", "Action")));
+        when(loanRepository.save(any(Loan.class))).thenThrow(new DataIntegrityViolationException("fk",
+                new ConstraintViolationException("fk", new SQLException(), "fk_loan_friend")));
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> loanService.createLoan(new LoanRequestDto(1L, 10L)));
+    }
+
+    @Test
+    public void whenCreateLoansForGamesAlreadyOnLoanShouldReportThemAndLendTheRest() {
+        // Given
+        Friend friend = new Friend(1L, "John");
+        when(friendRepository.findAllById(List.of(1L))).thenReturn(List.of(friend));
+        when(gameRepository.findAllById(List.of(10L, 11L))).thenReturn(List.of(new Game(10L, "God of War", "Action"), new Game(11L, "Uncharted", "Adventure")));
+        when(loanRepository.findOpenLoanGameIds(List.of(10L, 11L))).thenReturn(List.of(10L));
+        when(loanRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<LoanBatchResultDto> results = loanService.createLoans(List.of(
+                new LoanRequestDto(1L, 10L),
+                new LoanRequestDto(1L, 11L),
+                new LoanRequestDto(1L, 11L)));
+
+        // Then
+        assertEquals(List.of(Status.GAME_ALREADY_ON_LOAN, Status.CREATED, Status.GAME_ALREADY_ON_LOAN),
+                results.stream().map(LoanBatchResultDto::getStatus).toList());
+    }
+
+    @Test
+    public void whenAnotherNodeLendsAGameDuringCreateLoansShouldRetryOnceAndReportIt() {
+        // Given
+        Friend friend = new Friend(1L, "John");
+        when(friendRepository.findAllById(List.of(1L))).thenReturn(List.of(friend));
+        when(gameRepository.findAllById(List.of(10L, 11L))).thenReturn(List.of(new Game(10L, "God of War", "Action"), new Game(11L, "Uncharted", "Adventure")));
+        when(loanRepository.findOpenLoanGameIds(List.of(10L, 11L))).thenReturn(List.of(), List.of(10L));
+        when(loanRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key",
+                        new ConstraintViolationException("duplicate key", new SQLException(), "loan_open_game_key")))
+                .thenAnswer(invocation -> {
+                    List<Loan> loans = invocation.getArgument(0);
+                    loans.forEach(loan -> loan.setId(100L));
+                    return loans;
+                });
+
+        // When
+        List<LoanBatchResultDto> results = loanService.createLoans(List.of(
+                new LoanRequestDto(1L, 10L),
+                new LoanRequestDto(1L, 11L)));
+
+        // Then
+        assertEquals(List.of(Status.GAME_ALREADY_ON_LOAN, Status.CREATED),
+                results.stream().map(LoanBatchResultDto::getStatus).toList());
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager).rollback(any());
+        verify(loanRepository, never()).save(any(Loan.class));
+        verify(eventPublisher, times(1)).publishEvent(argThat((LoanChangedEvent event) ->
+                event.created().stream().map(LoanDto::getGameId).toList().equals(List.of(11L))));
+    }
 }
@@ -0,0 +1,191 @@
+package com.btg.challenge.loan;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LoanStatisticsTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 1);
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private ArchivedLoanRepository archivedLoanRepository;
+
+    @InjectMocks
+    private LoanStatistics loanStatistics;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void whenRebuiltShouldLoadAggregatesFromDatabase() {
+        // Given
+        stubDatabase(rows(row(10L, 3L), row(11L, 1L)), rows(row(1L, 2L)), rows(row(DAY, 4L)));
+
+        // When
+        loanStatistics.rebuild();
+        LoanStatisticsDto statistics = loanStatistics.getStatistics();
+
+        // Then
+        assertEquals(4, statistics.getTotalLoans());
+        assertEquals(2, statistics.getActiveLoans());
+        assertEquals(List.of(10L, 11L), statistics.getTopGames().stream().map(LoanStatisticsDto.GameLoans::getGameId).toList());
+        assertEquals(Map.of(1L, 2), statistics.getActiveLoansPerFriend());
+        assertEquals(Map.of(DAY, 4), statistics.getLoansPerDay());
+    }
+
+    @Test
+    public void whenLoansWereArchivedShouldCountThemAsReturnedHistory() {
+        // Given
+        stubDatabase(rows(row(10L, 1L)), rows(row(1L, 1L)), rows(row(DAY, 1L)));
+        when(archivedLoanRepository.countLoansPerGame()).thenReturn(rows(row(10L, 2L), row(11L, 1L)));
+        when(archivedLoanRepository.countLoansPerDay()).thenReturn(rows(row(DAY, 3L)));
+
+        // When
+        loanStatistics.rebuild();
+        LoanStatisticsDto statistics = loanStatistics.getStatistics();
+
+        // Then
+        assertEquals(4, statistics.getTotalLoans());
+        assertEquals(1, statistics.getActiveLoans());
+        assertEquals(3, statistics.getTopGames().get(0).getLoans());
+        assertEquals(Map.of(DAY, 4), statistics.getLoansPerDay());
+    }
+
+    @Test
+    public void whenLoansChangeShouldApplyDeltasWithoutQuerying() {
+        // Given
+        LoanDto first = new LoanDto(1L, 1L, 10L, DAY, null);
+        LoanDto second = new LoanDto(2L, 2L, 10L, DAY.plusDays(1), null);
+
+        // When
+        loanStatistics.onLoanChanged(LoanChangedEvent.created(List.of(first, second)));
+        loanStatistics.onLoanChanged(LoanChangedEvent.returned(List.of(first)));
+        LoanStatisticsDto statistics = loanStatistics.getStatistics();
+
+        // Then
+        assertEquals(2, statistics.getTotalLoans());
+        assertEquals(1, statistics.getActiveLoans());
+        assertEquals(2, statistics.getTopGames().get(0).getLoans());
+        assertEquals(Map.of(2L, 1), statistics.getActiveLoansPerFriend());
+        assertEquals(Map.of(DAY, 1, DAY.plusDays(1), 1), statistics.getLoansPerDay());
+        verifyNoInteractions(loanRepository);
+    }
+
+    @Test
+    public void whenUnchangedShouldServeSameSnapshot() {
+        // Given
+        loanStatistics.onLoanChanged(LoanChangedEvent.created(List.of(new LoanDto(1L, 1L, 10L, DAY, null))));
+        LoanStatisticsDto first = loanStatistics.getStatistics();
+
+        // When
+        LoanStatisticsDto second = loanStatistics.getStatistics();
+        loanStatistics.onLoanChanged(LoanChangedEvent.returned(List.of(new LoanDto(1L, 1L, 10L, DAY, DAY))));
+        LoanStatisticsDto third = loanStatistics.getStatistics();
+
+        // Then
+        assertSame(first, second);
+        assertNotSame(second, third);
+        assertEquals(0, third.getActiveLoans());
+    }
+
+    @Test
+    public void whenMoreGamesThanTopSizeShouldKeepMostLentOrderedByCount() {
+        // Given
+        List<Object[]> perGame = new ArrayList<>();
+        for (long gameId = 1; gameId <= 50; gameId++) {
+            perGame.add(row(gameId, gameId % 20 + 1));
+        }
+        stubDatabase(perGame, List.of(), List.of());
+
+        // When
+        loanStatistics.rebuild();
+        List<LoanStatisticsDto.GameLoans> top = loanStatistics.getStatistics().getTopGames();
+
+        // Then
+        assertEquals(10, top.size());
+        assertEquals(List.of(19L, 39L, 18L, 38L, 17L), top.subList(0, 5).stream().map(LoanStatisticsDto.GameLoans::getGameId).toList());
+        assertEquals(20, top.get(0).getLoans());
+    }
+
+    @Test
+    public void whenLoansCreatedShouldMoveGameIntoTopWithoutRebuilding() {
+        // Given
+        List<Object[]> perGame = new ArrayList<>();
+        for (long gameId = 1; gameId <= 12; gameId++) {
+            perGame.add(row(gameId, 2L));
+        }
+        stubDatabase(perGame, List.of(), List.of());
+        loanStatistics.rebuild();
+
+        // When
+        loanStatistics.onLoanChanged(LoanChangedEvent.created(List.of(
+                new LoanDto(1L, 1L, 12L, DAY, null), new LoanDto(2L, 2L, 11L, DAY, null), new LoanDto(3L, 3L, 12L, DAY, null))));
+        List<LoanStatisticsDto.GameLoans> top = loanStatistics.getStatistics().getTopGames();
+
+        // Then
+        assertEquals(10, top.size());
+        assertEquals(List.of(12L, 11L, 1L, 2L), top.subList(0, 4).stream().map(LoanStatisticsDto.GameLoans::getGameId).toList());
+        assertEquals(List.of(4, 3, 2, 2), top.subList(0, 4).stream().map(LoanStatisticsDto.GameLoans::getLoans).toList());
+        assertEquals(8L, top.get(9).getGameId());
+        verify(loanRepository, times(1)).countLoansPerGame();
+    }
+
+    @Test
+    public void whenAggregatesMatchDatabaseShouldReportConsistent() {
+        // Given
+        stubDatabase(rows(row(10L, 1L)), rows(row(1L, 1L)), rows(row(DAY, 1L)));
+        loanStatistics.onLoanChanged(LoanChangedEvent.created(List.of(new LoanDto(1L, 1L, 10L, DAY, null))));
+
+        // When
+        Map<String, Object> report = loanStatistics.verify();
+
+        // Then
+        assertEquals(true, report.get("consistent"));
+    }
+
+    @Test
+    public void whenAggregatesDriftShouldReportDifferences() {
+        // Given
+        stubDatabase(rows(row(10L, 2L)), rows(row(1L, 1L)), rows(row(DAY, 2L)));
+        loanStatistics.onLoanChanged(LoanChangedEvent.created(List.of(new LoanDto(1L, 1L, 10L, DAY, null))));
+
+        // When
+        Map<String, Object> report = loanStatistics.verify();
+
+        // Then
+        assertEquals(false, report.get("consistent"));
+        Map<?, ?> differences = (Map<?, ?>) report.get("differences");
+        assertEquals(Map.of(10L, Map.of("memory", 1, "database", 2)), differences.get("loansPerGame"));
+        assertEquals(Map.of(), differences.get("activeLoansPerFriend"));
+    }
+
+    private void stubDatabase(List<Object[]> perGame, List<Object[]> perFriend, List<Object[]> perDay) {
+        when(loanRepository.countLoansPerGame()).thenReturn(perGame);
+        when(loanRepository.countActiveLoansPerFriend()).thenReturn(perFriend);
+        when(loanRepository.countLoansPerDay()).thenReturn(perDay);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return Arrays.asList(rows);
+    }
+
+    private static Object[] row(Object key, long count) {
+        return new Object[]{key, count};
+    }
+}
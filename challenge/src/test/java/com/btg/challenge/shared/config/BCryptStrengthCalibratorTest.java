@@ -0,0 +1,26 @@
+package com.btg.challenge.shared.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class BCryptStrengthCalibratorTest {
+
+    @Test
+    public void whenTargetIsBelowMinimumCostShouldReturnMinimumStrength() {
+        assertEquals(4, BCryptStrengthCalibrator.calibrate(0, 4, 8));
+    }
+
+    @Test
+    public void whenTargetIsFarAboveMaximumCostShouldReturnMaximumStrength() {
+        assertEquals(6, BCryptStrengthCalibrator.calibrate(3_600_000, 4, 6));
+    }
+
+    @Test
+    public void whenCalibratingShouldStayWithinBounds() {
+        int strength = BCryptStrengthCalibrator.calibrate(20, 4, 10);
+
+        assertTrue(strength >= 4 && strength <= 10);
+    }
+}
@@ -0,0 +1,69 @@
+package com.btg.challenge.shared.config;
+
+import com.btg.challenge.shared.service.MessageService;
+import com.btg.challenge.user.User;
+import com.btg.challenge.user.UserDetailsServiceImpl;
+import com.btg.challenge.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+@Import({CacheConfig.class, UserDetailsServiceImpl.class})
+public class CacheConfigTest {
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private MessageService messageService;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCache(CacheConfig.USERS_CACHE).clear();
+    }
+
+    @Test
+    public void whenLoadingSameUserTwiceShouldQueryRepositoryOnce() {
+        // Given
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(new User(1L, "testuser", "password")));
+
+        // When
+        userDetailsService.loadUserByUsername("testuser");
+        userDetailsService.loadUserByUsername("testuser");
+
+        // Then
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    public void whenCacheEntryIsEvictedShouldQueryRepositoryAgain() {
+        // Given
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(new User(1L, "testuser", "password")));
+        userDetailsService.loadUserByUsername("testuser");
+
+        // When
+        cacheManager.getCache(CacheConfig.USERS_CACHE).evict("testuser");
+        String username = userDetailsService.loadUserByUsername("testuser").getUsername();
+
+        // Then
+        assertEquals("testuser", username);
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+}
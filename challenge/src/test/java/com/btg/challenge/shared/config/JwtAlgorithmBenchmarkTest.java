@@ -0,0 +1,79 @@
+package com.btg.challenge.shared.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.btg.challenge.user.User;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Sign and verify throughput of {@link JwtTokenProvider} per algorithm. Skipped by default;
+ * run with {@code mvn test -Dtest=JwtAlgorithmBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class JwtAlgorithmBenchmarkTest {
+
+    private static final List<SignatureAlgorithm> ALGORITHMS = List.of(
+            SignatureAlgorithm.HS256, SignatureAlgorithm.HS384, SignatureAlgorithm.HS512,
+            SignatureAlgorithm.RS256, SignatureAlgorithm.PS256,
+            SignatureAlgorithm.ES256, SignatureAlgorithm.ES384);
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 10_000;
+
+    @Test
+    public void compareSignAndVerifyThroughputPerAlgorithm() {
+        User user = new User(1L, "benchmark", "password");
+        System.out.printf("%-8s %14s %14s%n", "alg", "sign ops/s", "verify ops/s");
+
+        for (SignatureAlgorithm algorithm : ALGORITHMS) {
+            JwtTokenProvider provider = providerFor(algorithm);
+            String token = provider.generateToken(user);
+
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                provider.verify(provider.generateToken(user));
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                provider.generateToken(user);
+            }
+            double signOps = MEASURED_ITERATIONS / ((System.nanoTime() - start) / 1e9);
+
+            start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                provider.verify(token);
+            }
+            double verifyOps = MEASURED_ITERATIONS / ((System.nanoTime() - start) / 1e9);
+
+            System.out.printf("%-8s %14.0f %14.0f%n", algorithm.getValue(), signOps, verifyOps);
+            assertEquals("benchmark", provider.verify(token).subject());
+        }
+    }
+
+    private static JwtTokenProvider providerFor(SignatureAlgorithm algorithm) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "algorithm", algorithm.getValue());
+        ReflectionTestUtils.setField(provider, "expiration", 3600L);
+        if (algorithm.isHmac()) {
+            ReflectionTestUtils.setField(provider, "secret",
+                    Base64.getEncoder().encodeToString(Keys.secretKeyFor(algorithm).getEncoded()));
+        } else {
+            var keyPair = Keys.keyPairFor(algorithm);
+            ReflectionTestUtils.setField(provider, "privateKey",
+                    Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+            ReflectionTestUtils.setField(provider, "publicKey",
+                    Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        }
+        provider.init();
+        return provider;
+    }
+}
@@ -0,0 +1,66 @@
+package com.btg.challenge.shared.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+public class JwtAuthenticationCacheTest {
+
+    private JwtAuthenticationCache authenticationCache;
+    private UsernamePasswordAuthenticationToken authentication;
+
+    @BeforeEach
+    public void setUp() {
+        authenticationCache = new JwtAuthenticationCache(100, 300);
+        authentication = new UsernamePasswordAuthenticationToken("testuser", null, List.of());
+    }
+
+    @Test
+    public void whenTokenWasCachedShouldReturnSameAuthentication() {
+        // Given
+        authenticationCache.put("a.b.c", authentication, "jti-1", new Date(System.currentTimeMillis() + 60_000));
+
+        // When & Then
+        assertSame(authentication, authenticationCache.get("a.b.c").authentication());
+        assertEquals("jti-1", authenticationCache.get("a.b.c").tokenId());
+    }
+
+    @Test
+    public void whenTokenIsUnknownShouldReturnNull() {
+        assertNull(authenticationCache.get("a.b.c"));
+    }
+
+    @Test
+    public void whenTokenIsAlreadyExpiredShouldNotCacheIt() {
+        // Given
+        authenticationCache.put("a.b.c", authentication, "jti-1", new Date(System.currentTimeMillis() - 1_000));
+
+        // When & Then
+        assertNull(authenticationCache.get("a.b.c"));
+    }
+
+    @Test
+    public void whenTokenIsInvalidatedShouldReturnNull() {
+        // Given
+        authenticationCache.put("a.b.c", authentication, "jti-1", new Date(System.currentTimeMillis() + 60_000));
+
+        // When
+        authenticationCache.invalidate("a.b.c");
+
+        // Then
+        assertNull(authenticationCache.get("a.b.c"));
+    }
+
+    @Test
+    public void whenDigestingDifferentTokensShouldProduceDifferentKeys() {
+        assertNotEquals(JwtAuthenticationCache.digest("a.b.c"), JwtAuthenticationCache.digest("a.b.d"));
+    }
+}
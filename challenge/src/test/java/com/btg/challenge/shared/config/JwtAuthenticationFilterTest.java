@@ -0,0 +1,139 @@
+package com.btg.challenge.shared.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.btg.challenge.shared.service.TokenRevocationService;
+import com.btg.challenge.user.User;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+public class JwtAuthenticationFilterTest {
+
+    private static final String JWT = "a.b.c";
+
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    private JwtAuthenticationCache authenticationCache;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        authenticationCache = new JwtAuthenticationCache(100, 300);
+        filter = new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, authenticationCache, tokenRevocationService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void whenStatelessShouldAuthenticateFromClaimsWithoutLoadingTheUser() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        Claims claims = Jwts.claims().setSubject("testuser").setId("jti-1");
+        claims.put(JwtTokenProvider.CLAIM_USER_ID, 42);
+        claims.put(JwtTokenProvider.CLAIM_AUTHORITIES, List.of("ROLE_USER"));
+        when(jwtTokenProvider.verify(JWT))
+                .thenReturn(new VerifiedToken("testuser", new Date(System.currentTimeMillis() + 60_000), claims));
+
+        // When
+        filter.doFilter(bearer(), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        User principal = (User) authentication.getPrincipal();
+        assertEquals("testuser", principal.getUsername());
+        assertEquals(42L, principal.getId());
+        assertEquals(List.of("ROLE_USER"), authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    public void whenStatelessAndTokenRevokedShouldNotAuthenticate() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(filter, "stateless", true);
+        Claims claims = Jwts.claims().setSubject("testuser").setId("jti-1");
+        when(jwtTokenProvider.verify(JWT))
+                .thenReturn(new VerifiedToken("testuser", new Date(System.currentTimeMillis() + 60_000), claims));
+        when(tokenRevocationService.isRevoked("jti-1")).thenReturn(true);
+
+        // When
+        filter.doFilter(bearer(), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    public void whenCachedTokenIsRevokedShouldNotAuthenticate() throws Exception {
+        // Given
+        authenticationCache.put(JWT, new UsernamePasswordAuthenticationToken("testuser", null, List.of()), "jti-1",
+                new Date(System.currentTimeMillis() + 60_000));
+        when(tokenRevocationService.isRevoked("jti-1")).thenReturn(true);
+
+        // When
+        filter.doFilter(bearer(), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(jwtTokenProvider, never()).verify(any());
+    }
+
+    @Test
+    public void whenCachedTokenIsNotRevokedShouldAuthenticateWithoutVerifyingAgain() throws Exception {
+        // Given
+        authenticationCache.put(JWT, new UsernamePasswordAuthenticationToken("testuser", null, List.of()), "jti-1",
+                new Date(System.currentTimeMillis() + 60_000));
+
+        // When
+        filter.doFilter(bearer(), new MockHttpServletResponse(), new MockFilterChain());
+
+        // Then
+        assertEquals("testuser", SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(tokenRevocationService).isRevoked("jti-1");
+        verify(jwtTokenProvider, never()).verify(any());
+    }
+
+    private static MockHttpServletRequest bearer() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + JWT);
+        return request;
+    }
+}
@@ -0,0 +1,54 @@
+package com.btg.challenge.shared.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+public class JwtKeyRingTest {
+
+    private static JwtKey key(String id) {
+        return JwtKey.hmac(id, SignatureAlgorithm.HS256, id + "-secret-key-that-is-long-enough-for-hs256");
+    }
+
+    @Test
+    public void whenCreatedShouldUseFirstKeyAsActive() {
+        JwtKeyRing ring = JwtKeyRing.of(key("a"), List.of(key("b")));
+
+        assertEquals("a", ring.active().id());
+        assertEquals(List.of("a", "b"), ring.keyIds());
+    }
+
+    @Test
+    public void whenRotatedShouldPutNewKeyFirstAndTrimToRetainedKeys() {
+        JwtKeyRing ring = JwtKeyRing.of(key("a"), List.of(key("b")));
+
+        JwtKeyRing rotated = ring.rotate(key("c"), 2);
+
+        assertEquals("c", rotated.active().id());
+        assertEquals(List.of("c", "a"), rotated.keyIds());
+        assertNull(rotated.find("b"));
+        assertEquals(List.of("a", "b"), ring.keyIds());
+    }
+
+    @Test
+    public void whenRotatedToAKeyIdInUseWithOtherMaterialShouldReject() {
+        JwtKeyRing ring = JwtKeyRing.of(key("a"), List.of(key("b")));
+        JwtKey otherB = JwtKey.hmac("b", SignatureAlgorithm.HS256, "other-secret-key-that-is-long-enough-for-hs256");
+
+        assertThrows(IllegalArgumentException.class, () -> ring.rotate(otherB, 2));
+    }
+
+    @Test
+    public void whenRotatedToAKeyAlreadyInTheRingShouldLeaveItUnchanged() {
+        JwtKeyRing ring = JwtKeyRing.of(key("a"), List.of(key("b")));
+
+        assertSame(ring, ring.rotate(key("b"), 2));
+    }
+}
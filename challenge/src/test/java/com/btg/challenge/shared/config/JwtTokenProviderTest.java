@@ -7,7 +7,10 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,6 +23,7 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 
@@ -36,6 +40,7 @@ public class JwtTokenProviderTest {
         
         ReflectionTestUtils.setField(jwtTokenProvider, "secret", testSecret);
         ReflectionTestUtils.setField(jwtTokenProvider, "expiration", testExpiration);
+        jwtTokenProvider.init();
 
         User user = new User();
         user.setUsername("testuser");
@@ -122,7 +127,7 @@ public class JwtTokenProviderTest {
             Boolean isValid = jwtTokenProvider.validateToken(expiredToken, userDetails);
             assertFalse(isValid);
         } catch (Exception e) {
-            assertTrue(e instanceof io.jsonwebtoken.ExpiredJwtException);
+            assertTrue(e instanceof ExpiredJwtException);
         }
     }
 
@@ -199,4 +204,204 @@ public class JwtTokenProviderTest {
             jwtTokenProvider.validateToken("", userDetails);
         });
     }
+
+    @Test
+    public void whenVerifyValidTokenShouldReturnSubjectExpirationAndClaims() {
+        // Given
+        String token = jwtTokenProvider.generateToken(userDetails);
+
+        // When
+        VerifiedToken verified = jwtTokenProvider.verify(token);
+
+        // Then
+        assertEquals("testuser", verified.subject());
+        assertNotNull(verified.expiration());
+        assertFalse(verified.isExpired());
+        assertEquals("testuser", verified.claims().getSubject());
+    }
+
+    @Test
+    public void whenVerifyExpiredTokenShouldThrowExpiredJwtException() {
+        // Given
+        ReflectionTestUtils.setField(jwtTokenProvider, "expiration", -3600);
+        String expiredToken = jwtTokenProvider.generateToken(userDetails);
+
+        // When & Then
+        assertThrows(ExpiredJwtException.class, () -> jwtTokenProvider.verify(expiredToken));
+    }
+
+    @Test
+    public void whenVerifyTokenWithInvalidSignatureShouldThrowSignatureException() {
+        // Given
+        String wrongSecret = "different-secret-key-for-testing-purposes-that-is-256-bits";
+        String tokenWithWrongSignature = Jwts.builder()
+                .setSubject("testuser")
+                .setExpiration(new Date(System.currentTimeMillis() + testExpiration * 1000))
+                .signWith(Keys.hmacShaKeyFor(wrongSecret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        // When & Then
+        assertThrows(SignatureException.class, () -> jwtTokenProvider.verify(tokenWithWrongSignature));
+    }
+
+    @Test
+    public void whenGenerateTokenForPersistedUserShouldCarryUserIdAndAuthoritiesClaims() {
+        // Given
+        User user = new User(42L, "testuser", "password");
+
+        // When
+        VerifiedToken verified = jwtTokenProvider.verify(jwtTokenProvider.generateToken(user));
+
+        // Then
+        assertEquals(42L, verified.claims().get(JwtTokenProvider.CLAIM_USER_ID, Number.class).longValue());
+        assertTrue(verified.claims().get(JwtTokenProvider.CLAIM_AUTHORITIES, List.class).isEmpty());
+    }
+
+    @Test
+    public void whenUserIsAdminShouldCarryAdminRoleClaim() {
+        // Given
+        User user = new User(42L, "operator", "password");
+        user.setAdmin(true);
+
+        // When
+        VerifiedToken verified = jwtTokenProvider.verify(jwtTokenProvider.generateToken(user));
+
+        // Then
+        assertEquals(List.of("ROLE_ADMIN"), verified.claims().get(JwtTokenProvider.CLAIM_AUTHORITIES, List.class));
+    }
+
+    @Test
+    public void whenGenerateTokenShouldWriteActiveKeyIdHeader() {
+        // Given
+        String token = jwtTokenProvider.generateToken(userDetails);
+
+        // When
+        String keyId = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(testSecret.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getHeader()
+                .getKeyId();
+
+        // Then
+        assertEquals("primary", keyId);
+    }
+
+    @Test
+    public void whenKeyIsRotatedShouldStillVerifyTokensSignedWithRetainedKey() {
+        // Given
+        String oldToken = jwtTokenProvider.generateToken(userDetails);
+
+        // When
+        jwtTokenProvider.rotate("next", "another-secret-key-for-rotation-tests-that-is-long-enough");
+        String newToken = jwtTokenProvider.generateToken(userDetails);
+
+        // Then
+        assertEquals("next", jwtTokenProvider.getKeyRing().active().id());
+        assertEquals("testuser", jwtTokenProvider.verify(oldToken).subject());
+        assertEquals("testuser", jwtTokenProvider.verify(newToken).subject());
+    }
+
+    @Test
+    public void whenKeyFallsOutOfRetainedWindowShouldRejectItsTokens() {
+        // Given
+        ReflectionTestUtils.setField(jwtTokenProvider, "retainedKeys", 1);
+        String oldToken = jwtTokenProvider.generateToken(userDetails);
+
+        // When
+        jwtTokenProvider.rotate("next", "another-secret-key-for-rotation-tests-that-is-long-enough");
+
+        // Then
+        assertThrows(SignatureException.class, () -> jwtTokenProvider.verify(oldToken));
+    }
+
+    @Test
+    public void whenTokenHasNoKeyIdShouldVerifyWithConfiguredKey() {
+        // Given
+        String legacyToken = Jwts.builder()
+                .setSubject("testuser")
+                .setExpiration(new Date(System.currentTimeMillis() + testExpiration * 1000))
+                .signWith(Keys.hmacShaKeyFor(testSecret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        // When & Then
+        assertEquals("testuser", jwtTokenProvider.verify(legacyToken).subject());
+    }
+
+    @Test
+    public void whenConfiguredForEs256ShouldSignAndVerifyWithKeyPair() {
+        // Given
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        ReflectionTestUtils.setField(jwtTokenProvider, "algorithm", "ES256");
+        ReflectionTestUtils.setField(jwtTokenProvider, "privateKey", Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+        ReflectionTestUtils.setField(jwtTokenProvider, "publicKey", Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        jwtTokenProvider.init();
+
+        // When
+        String token = jwtTokenProvider.generateToken(userDetails);
+
+        // Then
+        assertEquals("testuser", jwtTokenProvider.verify(token).subject());
+    }
+
+    @Test
+    public void whenNodeOnlyHoldsPublicKeyShouldVerifyButRefuseToSign() {
+        // Given a token issued by a node holding the private key
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        ReflectionTestUtils.setField(jwtTokenProvider, "algorithm", "ES256");
+        ReflectionTestUtils.setField(jwtTokenProvider, "privateKey", Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+        ReflectionTestUtils.setField(jwtTokenProvider, "publicKey", publicKey);
+        jwtTokenProvider.init();
+        String token = jwtTokenProvider.generateToken(userDetails);
+
+        // When the edge node is configured with the public key only
+        JwtTokenProvider edgeProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(edgeProvider, "algorithm", "ES256");
+        ReflectionTestUtils.setField(edgeProvider, "publicKey", publicKey);
+        ReflectionTestUtils.setField(edgeProvider, "expiration", testExpiration);
+        edgeProvider.init();
+
+        // Then
+        assertEquals("testuser", edgeProvider.verify(token).subject());
+        assertThrows(IllegalStateException.class, () -> edgeProvider.generateToken(userDetails));
+    }
+
+    @Test
+    public void whenTokenHeaderNamesDifferentAlgorithmFamilyThanKeyShouldRejectIt() {
+        // Given a node configured for ES256
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        ReflectionTestUtils.setField(jwtTokenProvider, "algorithm", "ES256");
+        ReflectionTestUtils.setField(jwtTokenProvider, "publicKey", Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        jwtTokenProvider.init();
+
+        // And an HMAC-signed token under the same key id
+        String token = Jwts.builder()
+                .setHeaderParam("kid", "primary")
+                .setSubject("testuser")
+                .setExpiration(new Date(System.currentTimeMillis() + testExpiration * 1000))
+                .signWith(Keys.hmacShaKeyFor(testSecret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        // When & Then
+        assertThrows(SignatureException.class, () -> jwtTokenProvider.verify(token));
+    }
+
+    @Test
+    public void whenSecretIsTooShortForConfiguredAlgorithmShouldFailAtStartup() {
+        // Given a 456-bit secret
+        ReflectionTestUtils.setField(jwtTokenProvider, "algorithm", "HS512");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> jwtTokenProvider.init());
+    }
+
+    @Test
+    public void whenPreviousKeySecretIsTooShortShouldFailAtStartup() {
+        // Given
+        ReflectionTestUtils.setField(jwtTokenProvider, "previousKeys", "old=too-short-for-hs256");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> jwtTokenProvider.init());
+    }
 }
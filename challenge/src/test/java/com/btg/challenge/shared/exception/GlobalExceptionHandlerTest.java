@@ -203,4 +203,77 @@ public class GlobalExceptionHandlerTest {
         assertFalse(body.containsKey("status"));
         assertFalse(body.containsKey("error"));
     }
+
+    @Test
+    public void whenHandleServiceUnavailableExceptionShouldReturnServiceUnavailableWithRetryAfter() {
+        // Given
+        ServiceUnavailableException exception = new ServiceUnavailableException("Busy", 3);
+
+        // When
+        ResponseEntity<Object> response = globalExceptionHandler.handleServiceUnavailableException(exception, webRequest);
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("3", response.getHeaders().getFirst("Retry-After"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+
+        assertEquals("Busy", body.get("message"));
+        assertNotNull(body.get("timestamp"));
+    }
+
+    @Test
+    public void whenHandleTooManyRequestsExceptionShouldReturnTooManyRequestsWithRetryAfter() {
+        // Given
+        TooManyRequestsException exception = new TooManyRequestsException("Slow down", 30);
+
+        // When
+        ResponseEntity<Object> response = globalExceptionHandler.handleTooManyRequestsException(exception, webRequest);
+
+        // Then
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("30", response.getHeaders().getFirst("Retry-After"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+
+        assertEquals("Slow down", body.get("message"));
+    }
+
+    @Test
+    public void whenHandleConflictExceptionShouldReturnConflictResponse() {
+        // Given
+        ConflictException exception = new ConflictException("Username already taken: user");
+
+        // When
+        ResponseEntity<Object> response = globalExceptionHandler.handleConflictException(exception, webRequest);
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+
+        assertEquals("Username already taken: user", body.get("message"));
+        assertNotNull(body.get("timestamp"));
+    }
+
+    @Test
+    public void whenHandleBadRequestExceptionShouldReturnBadRequestResponse() {
+        // Given
+        BadRequestException exception = new BadRequestException("Invalid cursor");
+
+        // When
+        ResponseEntity<Object> response = globalExceptionHandler.handleBadRequestException(exception, webRequest);
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+
+        assertEquals("Invalid cursor", body.get("message"));
+        assertNotNull(body.get("timestamp"));
+    }
 }
@@ -0,0 +1,65 @@
+package com.btg.challenge.shared.pagination;
+
+import com.btg.challenge.shared.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CursorsTest {
+
+    @Test
+    public void whenCursorIsEmptyShouldStartFromTheBeginning() {
+        // When & Then
+        assertEquals(0L, Cursors.decode(""));
+        assertEquals(0L, Cursors.decode(null));
+    }
+
+    @Test
+    public void whenCursorEncodedShouldDecodeToSameId() {
+        // Given
+        String cursor = Cursors.encode(42L);
+
+        // When & Then
+        assertEquals(42L, Cursors.decode(cursor));
+        assertFalse(cursor.contains("42"));
+    }
+
+    @Test
+    public void whenCursorIsTamperedShouldThrowBadRequest() {
+        // When & Then
+        assertThrows(BadRequestException.class, () -> Cursors.decode("not-a-cursor!"));
+        assertThrows(BadRequestException.class, () -> Cursors.decode(Cursors.encode(1L).substring(1)));
+    }
+
+    @Test
+    public void whenMoreRowsThanSizeShouldTrimAndPointCursorAtLastReturnedRow() {
+        // Given rows fetched with one extra
+        List<Long> rows = List.of(3L, 5L, 8L);
+
+        // When
+        CursorPage<Long> page = Cursors.page(rows, 2, Long::longValue);
+
+        // Then
+        assertEquals(List.of(3L, 5L), page.content());
+        assertEquals(5L, Cursors.decode(page.nextCursor()));
+    }
+
+    @Test
+    public void whenRowsFitInSizeShouldBeLastPage() {
+        // When
+        CursorPage<Long> page = Cursors.page(List.of(3L, 5L), 2, Long::longValue);
+
+        // Then
+        assertEquals(2, page.content().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    public void whenSizeIsOutOfRangeShouldClampLimit() {
+        // When & Then
+        assertEquals(2, Cursors.limit(0).max());
+        assertEquals(Cursors.MAX_SIZE + 1, Cursors.limit(1_000_000).max());
+    }
+}
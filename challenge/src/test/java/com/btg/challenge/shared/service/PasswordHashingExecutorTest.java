@@ -0,0 +1,95 @@
+package com.btg.challenge.shared.service;
+
+import com.btg.challenge.shared.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PasswordHashingExecutorTest {
+
+    private PasswordHashingExecutor passwordHashingExecutor;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService callers;
+
+    @BeforeEach
+    public void setUp() {
+        MessageService messageService = mock(MessageService.class);
+        when(messageService.getMessage(anyString())).thenReturn("busy");
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHashingExecutor = new PasswordHashingExecutor(meterRegistry, messageService, 1, 1);
+        ReflectionTestUtils.setField(passwordHashingExecutor, "timeoutSeconds", 10L);
+        ReflectionTestUtils.setField(passwordHashingExecutor, "retryAfterSeconds", 2L);
+        callers = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+        passwordHashingExecutor.shutdown();
+    }
+
+    @Test
+    public void whenTaskSucceedsShouldReturnResultAndRecordLatency() {
+        // When
+        String result = passwordHashingExecutor.execute(() -> "hash");
+
+        // Then
+        assertEquals("hash", result);
+        assertEquals(1, meterRegistry.get("password.hashing.duration").timer().count());
+    }
+
+    @Test
+    public void whenTaskThrowsShouldPropagateOriginalException() {
+        assertThrows(IllegalArgumentException.class, () -> passwordHashingExecutor.execute(() -> {
+            throw new IllegalArgumentException("bad");
+        }));
+    }
+
+    @Test
+    public void whenPoolAndQueueAreFullShouldRejectWithRetryAfter() throws Exception {
+        // Given one running and one queued task holding the only worker and queue slot
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        callers.submit(() -> passwordHashingExecutor.execute(() -> {
+            started.countDown();
+            await(release);
+            return null;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> passwordHashingExecutor.execute(() -> null));
+        waitForQueuedTask();
+
+        // When & Then
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> passwordHashingExecutor.execute(() -> "rejected"));
+        assertEquals(2, exception.getRetryAfterSeconds());
+        release.countDown();
+    }
+
+    private void waitForQueuedTask() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (meterRegistry.get("executor.queued").gauge().value() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
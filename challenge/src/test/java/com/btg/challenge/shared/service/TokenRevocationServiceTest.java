@@ -0,0 +1,59 @@
+package com.btg.challenge.shared.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenRevocationServiceTest {
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    public void setUp() {
+        tokenRevocationService = new TokenRevocationService(1_000, 0.01);
+    }
+
+    @Test
+    public void whenTokenIsRevokedShouldReportItAsRevoked() {
+        // When
+        tokenRevocationService.revoke("jti-1", new Date(System.currentTimeMillis() + 60_000));
+
+        // Then
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+        assertFalse(tokenRevocationService.isRevoked("jti-2"));
+    }
+
+    @Test
+    public void whenTokenIsAlreadyExpiredShouldNotTrackIt() {
+        // When
+        tokenRevocationService.revoke("jti-1", new Date(System.currentTimeMillis() - 1_000));
+
+        // Then
+        assertFalse(tokenRevocationService.isRevoked("jti-1"));
+        assertEquals(0, tokenRevocationService.size());
+    }
+
+    @Test
+    public void whenPurgingShouldDropExpiredEntriesAndKeepActiveOnes() throws InterruptedException {
+        // Given
+        tokenRevocationService.revoke("short-lived", new Date(System.currentTimeMillis() + 20));
+        tokenRevocationService.revoke("long-lived", new Date(System.currentTimeMillis() + 60_000));
+        Thread.sleep(50);
+
+        // When
+        tokenRevocationService.purgeExpired();
+
+        // Then
+        assertEquals(1, tokenRevocationService.size());
+        assertFalse(tokenRevocationService.isRevoked("short-lived"));
+        assertTrue(tokenRevocationService.isRevoked("long-lived"));
+    }
+
+    @Test
+    public void whenTokenIdIsNullShouldNotBeRevoked() {
+        assertFalse(tokenRevocationService.isRevoked(null));
+    }
+}
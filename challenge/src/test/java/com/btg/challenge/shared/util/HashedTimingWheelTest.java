@@ -0,0 +1,97 @@
+package com.btg.challenge.shared.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashedTimingWheelTest {
+
+    @Test
+    public void whenDeadlinePassesShouldExpireOnlyDueTimeouts() {
+        // Given
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 8, 0);
+        wheel.schedule(1L, 25, "a");
+        wheel.schedule(2L, 55, "b");
+        List<String> expired = new ArrayList<>();
+
+        // When
+        wheel.advance(30, expired::add);
+
+        // Then
+        assertEquals(List.of("a"), expired);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void whenDeadlineIsSeveralRevolutionsAwayShouldWaitForItsRevolution() {
+        // Given
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 8, 0);
+        wheel.schedule(1L, 205, "far");
+        List<String> expired = new ArrayList<>();
+
+        // When
+        for (long now = 0; now < 200; now += 10) {
+            wheel.advance(now, expired::add);
+        }
+        boolean expiredEarly = !expired.isEmpty();
+        wheel.advance(210, expired::add);
+
+        // Then
+        assertFalse(expiredEarly);
+        assertEquals(List.of("far"), expired);
+    }
+
+    @Test
+    public void whenCancelledOrRescheduledShouldNotFireOldTimeout() {
+        // Given
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 8, 0);
+        wheel.schedule(1L, 15, "cancelled");
+        wheel.schedule(2L, 15, "old");
+        wheel.schedule(2L, 45, "new");
+        List<String> expired = new ArrayList<>();
+
+        // When
+        assertTrue(wheel.cancel(1L));
+        wheel.advance(20, expired::add);
+        wheel.advance(50, expired::add);
+
+        // Then
+        assertEquals(List.of("new"), expired);
+        assertFalse(wheel.cancel(1L));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void whenDeadlineAlreadyPassedShouldFireOnNextAdvance() {
+        // Given
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 8, 100);
+        wheel.schedule(1L, 5, "late");
+        List<String> expired = new ArrayList<>();
+
+        // When
+        wheel.advance(100, expired::add);
+
+        // Then
+        assertEquals(List.of("late"), expired);
+    }
+
+    @Test
+    public void whenAdvancingAfterLongPauseShouldExpireEverythingDue() {
+        // Given
+        HashedTimingWheel<Integer> wheel = new HashedTimingWheel<>(10, 8, 0);
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule(i, i * 7L, i);
+        }
+        List<Integer> expired = new ArrayList<>();
+
+        // When
+        wheel.advance(10_000, expired::add);
+
+        // Then
+        assertEquals(100, expired.size());
+        assertEquals(0, wheel.size());
+    }
+}
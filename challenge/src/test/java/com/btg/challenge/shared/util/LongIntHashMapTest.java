@@ -0,0 +1,66 @@
+package com.btg.challenge.shared.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void whenAddingToKeysShouldAccumulateAndDropZeroEntries() {
+        // Given
+        LongIntHashMap map = new LongIntHashMap();
+
+        // When
+        map.addTo(1L, 2);
+        map.addTo(1L, 3);
+        map.addTo(2L, 1);
+        map.addTo(2L, -1);
+
+        // Then
+        assertEquals(5, map.get(1L));
+        assertEquals(0, map.get(2L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void whenKeyIsEmptyMarkerShouldStillBeStored() {
+        // Given
+        LongIntHashMap map = new LongIntHashMap();
+
+        // When
+        map.addTo(Long.MIN_VALUE, 7);
+        Map<Long, Integer> entries = new HashMap<>();
+        map.forEach(entries::put);
+
+        // Then
+        assertEquals(7, map.get(Long.MIN_VALUE));
+        assertEquals(Map.of(Long.MIN_VALUE, 7), entries);
+    }
+
+    @Test
+    public void whenMixingInsertsAndRemovalsShouldMatchReferenceMap() {
+        // Given
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> reference = new HashMap<>();
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) * 1024L;
+            int delta = random.nextBoolean() ? 1 : -1;
+            assertEquals(reference.merge(key, delta, Integer::sum), map.addTo(key, delta));
+            reference.remove(key, 0);
+        }
+
+        // Then
+        Map<Long, Integer> entries = new HashMap<>();
+        map.forEach(entries::put);
+        assertEquals(reference, entries);
+        assertEquals(reference.size(), map.size());
+    }
+}
@@ -0,0 +1,72 @@
+package com.btg.challenge.shared.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedLockTest {
+
+    @Test
+    public void whenKeysAreFreeShouldRunActionAndReleaseLocks() {
+        // Given
+        StripedLock locks = new StripedLock(16);
+
+        // When
+        String result = locks.withLocks(List.of(1L, 2L), 100, () -> "done", IllegalStateException::new);
+
+        // Then
+        assertEquals("done", result);
+        assertEquals("again", locks.withLocks(List.of(1L, 2L), 0, () -> "again", IllegalStateException::new));
+    }
+
+    @Test
+    public void whenKeyIsHeldElsewhereShouldThrowAfterTimeout() throws Exception {
+        // Given
+        StripedLock locks = new StripedLock(16);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> locks.withLocks(List.of(7L), 1000, () -> {
+            holding.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }, IllegalStateException::new));
+
+        try {
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            // When & Then
+            assertThrows(IllegalStateException.class,
+                    () -> locks.withLocks(List.of(7L), 20, () -> "never", IllegalStateException::new));
+        } finally {
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void whenActionThrowsShouldStillReleaseLocks() {
+        // Given
+        StripedLock locks = new StripedLock(4);
+
+        // When
+        assertThrows(IllegalArgumentException.class, () -> locks.withLocks(List.of(3L), 100, () -> {
+            throw new IllegalArgumentException();
+        }, IllegalStateException::new));
+
+        // Then
+        assertEquals(1, locks.withLocks(List.of(3L), 0, () -> 1, IllegalStateException::new));
+    }
+}
@@ -1,10 +1,16 @@
 package com.btg.challenge.user;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import org.junit.jupiter.api.Test;
@@ -17,8 +23,11 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.btg.challenge.shared.config.JwtTokenProvider;
+import com.btg.challenge.shared.service.TokenRevocationService;
+import com.btg.challenge.shared.config.JwtAuthenticationCache;
 import com.btg.challenge.shared.exception.GlobalExceptionHandler;
 import com.btg.challenge.shared.exception.ResourceNotFoundException;
+import com.btg.challenge.shared.exception.TooManyRequestsException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @WebMvcTest(AuthController.class)
@@ -33,9 +42,18 @@ public class AuthControllerTest {
     @MockBean
     private AuthService authService;
 
+    @MockBean
+    private LoginAttemptLimiter loginAttemptLimiter;
+
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
 
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private JwtAuthenticationCache jwtAuthenticationCache;
+
     @Test
     @WithMockUser(username = "user")
     public void whenLoginWithValidCredentialsShouldReturnSuccessResponse() throws Exception {
@@ -83,4 +101,33 @@ public class AuthControllerTest {
                         .content(objectMapper.writeValueAsString(authRequestDto)))
                 .andExpect(status().isCreated());
     }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenLogoutWithBearerTokenShouldRevokeTokenAndReturnNoContent() throws Exception {
+        mockMvc.perform(post("/auth/logout")
+                        .with(csrf())
+                        .header("Authorization", "Bearer token"))
+                .andExpect(status().isNoContent());
+
+        verify(authService, times(1)).logout("token");
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    public void whenLoginAttemptsExceedLimitShouldReturnTooManyRequestsWithoutAuthenticating() throws Exception {
+        AuthRequestDto authRequestDto = new AuthRequestDto("user", "password");
+
+        doThrow(new TooManyRequestsException("Too many login attempts", 42))
+                .when(loginAttemptLimiter).acquire(anyString(), anyString());
+
+        mockMvc.perform(post("/auth/login")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(authRequestDto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "42"));
+
+        verify(authService, never()).login(any(AuthRequestDto.class));
+    }
 }
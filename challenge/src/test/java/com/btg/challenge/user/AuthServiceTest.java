@@ -4,25 +4,44 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Date;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.LockedException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import com.btg.challenge.shared.config.CacheConfig;
+import com.btg.challenge.shared.config.JwtAuthenticationCache;
 import com.btg.challenge.shared.config.JwtTokenProvider;
+import com.btg.challenge.shared.config.VerifiedToken;
+import com.btg.challenge.shared.exception.ConflictException;
+import com.btg.challenge.shared.exception.ServiceUnavailableException;
+import com.btg.challenge.shared.service.MessageService;
+import com.btg.challenge.shared.service.PasswordHashingExecutor;
+import com.btg.challenge.shared.service.TokenRevocationService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 
 public class AuthServiceTest {
     @Mock
@@ -37,12 +56,34 @@ public class AuthServiceTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache usersCache;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private JwtAuthenticationCache authenticationCache;
+
+    @Mock
+    private UsernameFilter usernameFilter;
+
+    @Mock
+    private MessageService messageService;
+
     @InjectMocks
     private AuthService authService;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(passwordHashingExecutor.execute(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
     }
 
     @Test
@@ -260,4 +301,130 @@ public class AuthServiceTest {
         verify(userRepository, times(1)).findByUsername("user");
         verifyNoInteractions(jwtTokenProvider);
     }
+
+    @Test
+    public void whenPasswordHashingIsSaturatedShouldFailLoginWithoutAuthenticating() {
+        // Given
+        AuthRequestDto authRequestDto = new AuthRequestDto("user", "password");
+
+        doThrow(new ServiceUnavailableException("busy", 1)).when(passwordHashingExecutor).execute(any());
+
+        // When & Then
+        assertThrows(ServiceUnavailableException.class, () -> authService.login(authRequestDto));
+
+        verifyNoInteractions(authenticationManager);
+        verifyNoInteractions(jwtTokenProvider);
+    }
+
+    @Test
+    public void whenLoginWithOutdatedPasswordHashShouldRehashAndEvictCachedUser() {
+        // Given
+        AuthRequestDto authRequestDto = new AuthRequestDto("user", "password");
+        User user = new User(1L, "user", "$2a$04$legacyhash");
+
+        when(authenticationManager.authenticate(any())).thenReturn(null);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(passwordEncoder.upgradeEncoding("$2a$04$legacyhash")).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenReturn("{bcrypt}$2a$12$newhash");
+        when(cacheManager.getCache(CacheConfig.USERS_CACHE)).thenReturn(usersCache);
+        when(jwtTokenProvider.generateToken(user)).thenReturn("token");
+
+        // When
+        authService.login(authRequestDto);
+
+        // Then
+        verify(userRepository, times(1)).save(argThat(saved -> "{bcrypt}$2a$12$newhash".equals(saved.getPassword())));
+        verify(usersCache, times(1)).evict("user");
+    }
+
+    @Test
+    public void whenLoginWithCurrentPasswordHashShouldNotRehash() {
+        // Given
+        AuthRequestDto authRequestDto = new AuthRequestDto("user", "password");
+        User user = new User(1L, "user", "{bcrypt}$2a$12$currenthash");
+
+        when(authenticationManager.authenticate(any())).thenReturn(null);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(passwordEncoder.upgradeEncoding("{bcrypt}$2a$12$currenthash")).thenReturn(false);
+
+        // When
+        authService.login(authRequestDto);
+
+        // Then
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    public void whenLogoutWithValidTokenShouldRevokeItsIdAndEvictCachedAuthentication() {
+        // Given
+        Date expiration = new Date(System.currentTimeMillis() + 60_000);
+        Claims claims = Jwts.claims().setSubject("user").setId("jti-1").setExpiration(expiration);
+        when(jwtTokenProvider.verify("token")).thenReturn(new VerifiedToken("user", expiration, claims));
+
+        // When
+        authService.logout("token");
+
+        // Then
+        verify(tokenRevocationService, times(1)).revoke("jti-1", expiration);
+        verify(authenticationCache, times(1)).invalidate("token");
+    }
+
+    @Test
+    public void whenLogoutWithInvalidTokenShouldDoNothing() {
+        // Given
+        when(jwtTokenProvider.verify("invalid")).thenThrow(new MalformedJwtException("bad token"));
+
+        // When
+        authService.logout("invalid");
+
+        // Then
+        verifyNoInteractions(tokenRevocationService);
+        verifyNoInteractions(authenticationCache);
+    }
+
+    @Test
+    public void whenRegisterWithUnknownUsernameShouldSkipExistenceQueryAndRecordUsername() {
+        // Given
+        AuthRequestDto authRequestDto = new AuthRequestDto("newuser", "password");
+        when(usernameFilter.mightExist("newuser")).thenReturn(false);
+        when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+
+        // When
+        authService.register(authRequestDto);
+
+        // Then
+        verify(userRepository, never()).existsByUsername(any());
+        verify(userRepository, times(1)).save(any(User.class));
+        verify(usernameFilter, times(1)).add("newuser");
+    }
+
+    @Test
+    public void whenRegisterWithTakenUsernameShouldThrowConflictWithoutHashing() {
+        // Given
+        AuthRequestDto authRequestDto = new AuthRequestDto("user", "password");
+        when(usernameFilter.mightExist("user")).thenReturn(true);
+        when(userRepository.existsByUsername("user")).thenReturn(true);
+        when(messageService.getMessage("user.already.exists", "user")).thenReturn("Username already taken: user");
+
+        // When & Then
+        ConflictException exception = assertThrows(ConflictException.class, () -> authService.register(authRequestDto));
+        assertEquals("Username already taken: user", exception.getMessage());
+        verifyNoInteractions(passwordEncoder);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    public void whenConcurrentRegistrationWinsShouldTranslateUniqueViolationToConflict() {
+        // Given
+        AuthRequestDto authRequestDto = new AuthRequestDto("user", "password");
+        when(usernameFilter.mightExist("user")).thenReturn(true);
+        when(userRepository.existsByUsername("user")).thenReturn(false);
+        when(passwordEncoder.encode("password")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // When & Then
+        assertThrows(ConflictException.class, () -> authService.register(authRequestDto));
+        verify(usernameFilter, never()).add(any());
+    }
 }
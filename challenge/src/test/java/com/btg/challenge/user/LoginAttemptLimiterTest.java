@@ -0,0 +1,138 @@
+package com.btg.challenge.user;
+
+import com.btg.challenge.shared.exception.TooManyRequestsException;
+import com.btg.challenge.shared.service.MessageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class LoginAttemptLimiterTest {
+
+    private LoginAttemptLimiter loginAttemptLimiter;
+    private SimpleMeterRegistry meterRegistry;
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 60s window, 3 attempts per username, 5 per IP
+        loginAttemptLimiter = new LoginAttemptLimiter(mock(MessageService.class), meterRegistry, 60, 3, 5, 1024, now::get);
+    }
+
+    @Test
+    public void whenUsernameExceedsLimitShouldRejectFurtherAttempts() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            loginAttemptLimiter.acquire("victim", "10.0.0." + i);
+        }
+
+        // When & Then
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> loginAttemptLimiter.acquire("victim", "10.0.0.9"));
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+        assertEquals(1.0, meterRegistry.get("auth.login.attempts").tag("outcome", "rejected_username").counter().count());
+    }
+
+    @Test
+    public void whenIpExceedsLimitShouldRejectAttemptsForAnyUsername() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            loginAttemptLimiter.acquire("user" + i, "10.0.0.1");
+        }
+
+        // When & Then
+        assertThrows(TooManyRequestsException.class, () -> loginAttemptLimiter.acquire("someone-else", "10.0.0.1"));
+        assertEquals(1.0, meterRegistry.get("auth.login.attempts").tag("outcome", "rejected_ip").counter().count());
+    }
+
+    @Test
+    public void whenWindowHasFullyPassedShouldAllowAttemptsAgain() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            loginAttemptLimiter.acquire("victim", "10.0.0.1");
+        }
+
+        // When two windows later nothing of the old window overlaps any more
+        now.addAndGet(120_000);
+
+        // Then
+        assertDoesNotThrow(() -> loginAttemptLimiter.acquire("victim", "10.0.0.1"));
+    }
+
+    @Test
+    public void whenPreviousWindowStillOverlapsShouldCountItsAttempts() {
+        // Given three attempts at the very end of a window
+        now.set(60_000L * 1000 + 59_000);
+        for (int i = 0; i < 3; i++) {
+            loginAttemptLimiter.acquire("victim", "10.0.0.1");
+        }
+
+        // When the next window just started, all of the previous one still overlaps
+        now.set(60_000L * 1001);
+
+        // Then
+        assertThrows(TooManyRequestsException.class, () -> loginAttemptLimiter.acquire("victim", "10.0.0.1"));
+    }
+
+    @Test
+    public void whenAttemptIsRejectedShouldNotCountTowardsTheLimit() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            loginAttemptLimiter.acquire("victim", "10.0.0.1");
+        }
+        assertThrows(TooManyRequestsException.class, () -> loginAttemptLimiter.acquire("victim", "10.0.0.1"));
+
+        // When & Then other usernames from the same IP still have IP budget left
+        assertDoesNotThrow(() -> loginAttemptLimiter.acquire("other", "10.0.0.1"));
+        assertDoesNotThrow(() -> loginAttemptLimiter.acquire("another", "10.0.0.1"));
+    }
+
+    @Test
+    public void whenManyThreadsAttemptTheSameUsernameShouldAllowNoMoreThanTheLimit() throws Exception {
+        // Given
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < threads; i++) {
+                String ip = "10.0.1." + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        loginAttemptLimiter.acquire("victim", ip);
+                        allowed.incrementAndGet();
+                    } catch (TooManyRequestsException e) {
+                        // expected for all but three
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertTrue(allowed.get() <= 3);
+    }
+}
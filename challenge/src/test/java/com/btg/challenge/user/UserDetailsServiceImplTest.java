@@ -114,4 +114,17 @@ public class UserDetailsServiceImplTest {
         verify(userRepository, times(1)).findByUsername(username);
         verify(messageService, times(1)).getMessage("user.not.found", username);
     }
+
+    @Test
+    public void whenUserWasRegisteredOnAnotherNodeShouldStillBeFound() {
+        // Given
+        User user = new User(1L, "remote", "password");
+        when(userRepository.findByUsername("remote")).thenReturn(Optional.of(user));
+
+        // When
+        UserDetails result = userDetailsService.loadUserByUsername("remote");
+
+        // Then
+        assertSame(user, result);
+    }
 }
@@ -0,0 +1,76 @@
+package com.btg.challenge.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class UsernameFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UsernameFilter usernameFilter;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        usernameFilter = new UsernameFilter(userRepository, 1000, 0.001);
+    }
+
+    @Test
+    public void whenNotYetLoadedShouldReportEveryUsernameAsPossiblyExisting() {
+        // When & Then
+        assertTrue(usernameFilter.mightExist("anyone"));
+        assertFalse(usernameFilter.mightExist(null));
+    }
+
+    @Test
+    public void whenRebuiltShouldContainStoredUsernamesOnly() {
+        // Given
+        when(userRepository.count()).thenReturn(2L);
+        when(userRepository.streamAllUsernames()).thenReturn(Stream.of("alice", "bob"));
+
+        // When
+        usernameFilter.rebuild();
+
+        // Then
+        assertTrue(usernameFilter.mightExist("alice"));
+        assertTrue(usernameFilter.mightExist("bob"));
+        assertFalse(usernameFilter.mightExist("mallory"));
+    }
+
+    @Test
+    public void whenUsernameAddedAfterLoadShouldBeReportedAsPossiblyExisting() {
+        // Given
+        when(userRepository.streamAllUsernames()).thenReturn(Stream.empty());
+        usernameFilter.rebuild();
+
+        // When
+        usernameFilter.add("carol");
+
+        // Then
+        assertTrue(usernameFilter.mightExist("carol"));
+    }
+
+    @Test
+    public void whenUsernameAddedDuringRebuildShouldSurviveTheSwap() {
+        // Given a registration that commits while the snapshot query is running
+        when(userRepository.streamAllUsernames()).thenAnswer(invocation -> {
+            usernameFilter.add("dave");
+            return Stream.of("alice");
+        });
+
+        // When
+        usernameFilter.rebuild();
+
+        // Then
+        assertTrue(usernameFilter.mightExist("dave"));
+        assertTrue(usernameFilter.mightExist("alice"));
+    }
+}